@@ -17,18 +17,42 @@ package org.springframework.samples.petclinic.api;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.config.MeterFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.cloud.client.circuitbreaker.Customizer;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.api.assets.FingerprintedAssetHandler;
+import org.springframework.samples.petclinic.api.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.samples.petclinic.api.system.ClientMetricsProperties;
+import org.springframework.samples.petclinic.api.system.ClientPoolProperties;
+import org.springframework.samples.petclinic.api.system.ConcurrencyLimitProperties;
+import org.springframework.samples.petclinic.api.system.DashboardProperties;
+import org.springframework.samples.petclinic.api.system.DeadlineProperties;
+import org.springframework.samples.petclinic.api.system.HedgingProperties;
+import org.springframework.samples.petclinic.api.system.IdempotencyProperties;
+import org.springframework.samples.petclinic.api.system.LastKnownGoodProperties;
+import org.springframework.samples.petclinic.api.system.LoadSheddingProperties;
+import org.springframework.samples.petclinic.api.system.OwnerBatchProperties;
+import org.springframework.samples.petclinic.api.system.PrefetchProperties;
+import org.springframework.samples.petclinic.api.system.PriorityLaneProperties;
+import org.springframework.samples.petclinic.api.system.ReferenceCacheProperties;
+import org.springframework.samples.petclinic.api.system.RelayProperties;
+import org.springframework.samples.petclinic.api.system.RouteLatencyProperties;
+import org.springframework.samples.petclinic.api.system.ServerTimingProperties;
+import org.springframework.samples.petclinic.api.system.StaticAssetProperties;
+import org.springframework.samples.petclinic.api.system.ValidatorCacheProperties;
+import org.springframework.samples.petclinic.api.system.VisitsBatchProperties;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.server.RequestPredicates;
@@ -44,6 +68,14 @@ import java.time.Duration;
  */
 @EnableDiscoveryClient
 @SpringBootApplication
+@EnableConfigurationProperties({ClientPoolProperties.class, VisitsBatchProperties.class, ReferenceCacheProperties.class,
+    LastKnownGoodProperties.class, HedgingProperties.class, ConcurrencyLimitProperties.class,
+    DeadlineProperties.class, ClientMetricsProperties.class, ServerTimingProperties.class,
+    RouteLatencyProperties.class, StaticAssetProperties.class, RelayProperties.class,
+    DashboardProperties.class, OwnerBatchProperties.class, PrefetchProperties.class,
+    ValidatorCacheProperties.class, IdempotencyProperties.class, LoadSheddingProperties.class,
+    PriorityLaneProperties.class})
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
 public class ApiGatewayApplication {
 
     public static void main(String[] args) {
@@ -70,8 +102,9 @@ public class ApiGatewayApplication {
      * @see <a href="https://github.com/spring-projects/spring-boot/issues/9785">#9785</a>
      */
     @Bean
-    RouterFunction<?> routerFunction() {
-        RouterFunction router = RouterFunctions.resources("/**", new ClassPathResource("static/"))
+    RouterFunction<?> routerFunction(FingerprintedAssetHandler fingerprintedAssets) {
+        RouterFunction router = RouterFunctions.route(fingerprintedAssets.predicate(), fingerprintedAssets)
+            .and(RouterFunctions.resources("/**", new ClassPathResource("static/")))
             .andRoute(RequestPredicates.GET("/"),
                 request -> ServerResponse.ok().contentType(MediaType.TEXT_HTML).bodyValue(indexHtml));
         return router;
@@ -87,4 +120,13 @@ public class ApiGatewayApplication {
             .timeLimiterConfig(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(4)).build())
             .build());
     }
+
+    /**
+     * Caps the {@code uri} tag of downstream call metrics, in case a client sends an expanded URI
+     * instead of a template.
+     */
+    @Bean
+    public MeterFilter clientUriTagLimit(ClientMetricsProperties properties) {
+        return MeterFilter.maximumAllowableTags("gateway.client", "uri", properties.getMaxUriTags(), MeterFilter.deny());
+    }
 }
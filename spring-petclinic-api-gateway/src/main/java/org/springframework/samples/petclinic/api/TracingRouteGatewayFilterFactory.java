@@ -2,13 +2,12 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.springframework.samples.petclinic.api;
 
-import io.opentelemetry.instrumentation.annotations.SpanAttribute;
-import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.samples.petclinic.api.TracingRouteGatewayFilterFactory.Config;
-import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
+import org.springframework.samples.petclinic.api.route.RouteLatencyRegistry;
+import org.springframework.samples.petclinic.api.route.RouteTracer;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
@@ -18,8 +17,15 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.G
 
 @Component
 public class TracingRouteGatewayFilterFactory extends AbstractGatewayFilterFactory<Config> {
-    public TracingRouteGatewayFilterFactory() {
+
+    private final RouteTracer routeTracer;
+
+    private final RouteLatencyRegistry latencyRegistry;
+
+    public TracingRouteGatewayFilterFactory(RouteTracer routeTracer, RouteLatencyRegistry latencyRegistry) {
         super(Config.class);
+        this.routeTracer = routeTracer;
+        this.latencyRegistry = latencyRegistry;
     }
 
     @Override
@@ -35,17 +41,13 @@ public class TracingRouteGatewayFilterFactory extends AbstractGatewayFilterFacto
             if (uri == null) {
                 uri = exchange.getRequest().getURI();
             }
-            traceRouteInfo(route.getId(), uri.getPath());
-            return chain.filter(exchange);
+            routeTracer.traceRouteInfo(route.getId(), uri.getPath());
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                .doFinally(signal -> latencyRegistry.record(route.getId(), System.nanoTime() - start));
         };
     }
 
-    @WithSpan(value = "RecordRoute")
-    public void traceRouteInfo(@SpanAttribute(WellKnownAttributes.REMOTE_APPLICATION) String application,
-                               @SpanAttribute(WellKnownAttributes.REMOTE_OPERATION) String operation) {
-
-    }
-
     public static class Config {
     }
 }
@@ -0,0 +1,96 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.Order;
+import org.springframework.samples.petclinic.api.system.ConcurrencyLimitProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Caps the calls in flight to every downstream service with a {@link GradientLimit}. Calls over
+ * the limit fail straight away with {@link ConcurrencyLimitExceededException} rather than
+ * queueing behind a struggling service. Runs outside the circuit breaker and bulkhead, so their
+ * rejections release the slot without counting as a latency sample.
+ * <p>
+ * Calls that went through the {@link PriorityLanes} were already admitted against the same limit
+ * and are never rejected here, so the lanes decide which priority gets the limited slots.
+ */
+@Component
+@Order(50)
+public class AdaptiveConcurrencyFilterFactory implements ClientFilterFactory {
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, GradientLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilterFactory(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ExchangeFilterFunction create(String serviceId) {
+        if (!properties.isEnabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        GradientLimit limit = limit(serviceId);
+        Gauge.builder("gateway.client.concurrency.limit", limit, GradientLimit::getLimit)
+            .description("Calls allowed in flight to the service")
+            .tag("service", serviceId)
+            .register(meterRegistry);
+        Gauge.builder("gateway.client.concurrency.in-flight", limit, GradientLimit::getInFlight)
+            .description("Calls currently in flight to the service")
+            .tag("service", serviceId)
+            .register(meterRegistry);
+        Counter rejections = Counter.builder("gateway.client.rejected")
+            .description("Downstream calls rejected without being sent")
+            .tags("service", serviceId, "reason", "concurrency-limit")
+            .register(meterRegistry);
+
+        return (request, next) -> Mono.defer(() -> {
+            int inFlight = request.attribute(PriorityLaneFilterFactory.ADMITTED_ATTRIBUTE).isPresent()
+                ? limit.acquire() : limit.tryAcquire();
+            if (inFlight == 0) {
+                rejections.increment();
+                return Mono.error(new ConcurrencyLimitExceededException(serviceId, limit.getLimit()));
+            }
+            long start = System.nanoTime();
+            return next.exchange(request)
+                .doOnNext(response -> limit.onSample(System.nanoTime() - start, inFlight))
+                .doOnError(AdaptiveConcurrencyFilterFactory::isTimeout, ex -> limit.onTimeout())
+                .doFinally(signal -> limit.release());
+        });
+    }
+
+    /**
+     * The limit of calls in flight to the service, or empty when adaptive limiting is disabled.
+     */
+    Optional<GradientLimit> limitFor(String serviceId) {
+        return properties.isEnabled() ? Optional.of(limit(serviceId)) : Optional.empty();
+    }
+
+    private GradientLimit limit(String serviceId) {
+        return limits.computeIfAbsent(serviceId, id -> new GradientLimit(properties));
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
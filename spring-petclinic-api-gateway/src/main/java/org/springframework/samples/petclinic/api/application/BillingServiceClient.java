@@ -19,7 +19,10 @@
 package org.springframework.samples.petclinic.api.application;
 
 import io.opentelemetry.instrumentation.annotations.WithSpan;
-import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.api.dto.BillingDetail;
 import org.springframework.samples.petclinic.api.dto.InsuranceDetail;
 import org.springframework.samples.petclinic.api.dto.PetInsurance;
@@ -28,28 +31,83 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * @author Maciej Szarlinski
  */
 @Component
-@RequiredArgsConstructor
 public class BillingServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final ParameterizedTypeReference<List<BillingDetail>> BILLING_LIST =
+        new ParameterizedTypeReference<List<BillingDetail>>() {
+        };
+
+    private static final ParameterizedTypeReference<Object> SUMMARY = new ParameterizedTypeReference<Object>() {
+    };
+
+    private final WebClient webClient;
+
+    private final ValidatorCache validatorCache;
+
+    public BillingServiceClient(WebClientRegistry webClients, ValidatorCache validatorCache) {
+        this.webClient = webClients.get("billing-service");
+        this.validatorCache = validatorCache;
+    }
 
     public Flux<BillingDetail> getBillings() {
         // return Flux.empty().cast(InsuranceDetail.class);
-        return webClientBuilder.build().get()
+        return webClient.get()
             .uri("http://billing-service/billings/")
             .retrieve()
             .bodyToFlux(BillingDetail.class);
     }
 
-    public Mono<Object> getBillingSummary() {
-        return webClientBuilder.build().get()
+    /**
+     * The billings list, revalidated against the copy seen last; the entity carries its validators.
+     */
+    public Mono<ResponseEntity<List<BillingDetail>>> getBillingList() {
+        return validatorCache.get(webClient, "billings", "http://billing-service/billings/", BILLING_LIST);
+    }
+
+    /**
+     * The billing summary, revalidated against the copy seen last; the entity carries its validators.
+     */
+    public Mono<ResponseEntity<Object>> getBillingSummary() {
+        return validatorCache.get(webClient, "billing-summary", "http://billing-service/summary/", SUMMARY);
+    }
+
+    /**
+     * The billings list as the billing service sent it, for relaying without decoding. The
+     * client's conditional headers are passed on, so an unchanged list is relayed as a 304.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> relayBillings(final HttpHeaders conditions) {
+        return webClient.get()
+            .uri("http://billing-service/billings/")
+            .headers(headers -> copyConditions(conditions, headers))
+            .retrieve()
+            .toEntityFlux(DataBuffer.class);
+    }
+
+    /**
+     * The billing summary as the billing service sent it, for relaying without decoding, passing
+     * on the client's conditional headers.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> relayBillingSummary(final HttpHeaders conditions) {
+        return webClient.get()
             .uri("http://billing-service/summary/")
+            .headers(headers -> copyConditions(conditions, headers))
             .retrieve()
-            .bodyToMono(Object.class);
+            .toEntityFlux(DataBuffer.class);
+    }
+
+    private static void copyConditions(HttpHeaders from, HttpHeaders to) {
+        for (String name : new String[]{HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE}) {
+            List<String> values = from.get(name);
+            if (values != null) {
+                to.put(name, values);
+            }
+        }
     }
 
 }
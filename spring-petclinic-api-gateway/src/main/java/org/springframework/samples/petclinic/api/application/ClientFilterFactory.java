@@ -0,0 +1,15 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+/**
+ * Contributes a filter to the {@link org.springframework.web.reactive.function.client.WebClient}
+ * of every downstream service. Filters are applied in {@link org.springframework.core.annotation.Order}
+ * order, the first one being the outermost.
+ */
+public interface ClientFilterFactory {
+
+    ExchangeFilterFunction create(String serviceId);
+}
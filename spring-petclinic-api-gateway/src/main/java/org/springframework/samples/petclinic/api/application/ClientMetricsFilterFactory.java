@@ -0,0 +1,154 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.samples.petclinic.api.system.ClientMetricsProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Records rate, errors and duration of every downstream call as {@code gateway.client.requests},
+ * together with request and response body sizes. Calls are tagged with the service and the URI
+ * template they were made with, never the expanded URI, so the number of series stays bounded
+ * however many owners and pets there are. Runs as the outermost client filter, so calls rejected
+ * by the resilience filters count as errors.
+ */
+@Component
+@Order(0)
+public class ClientMetricsFilterFactory implements ClientFilterFactory {
+
+    /**
+     * Set by {@link WebClient} when the URI was given as a template.
+     */
+    static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    private static final Pattern SCHEME_AND_HOST = Pattern.compile("^[a-z][a-z0-9+.-]*://[^/?]*");
+
+    private final ClientMetricsProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public ClientMetricsFilterFactory(ClientMetricsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ExchangeFilterFunction create(String serviceId) {
+        if (!properties.isEnabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        return (request, next) -> Mono.defer(() -> {
+            Tags tags = Tags.of("service", serviceId, "method", request.method().name(), "uri", uriTemplate(request));
+            long start = System.nanoTime();
+            return next.exchange(countRequestBytes(request, tags))
+                .doOnSuccess(response -> record(start, tags, response.rawStatusCode(), outcome(response.rawStatusCode())))
+                .doOnError(ex -> recordError(start, tags, ex))
+                .doOnCancel(() -> record(start, tags, "CANCELLED", "UNKNOWN"))
+                .map(response -> countResponseBytes(response, tags));
+        });
+    }
+
+    static String uriTemplate(ClientRequest request) {
+        String template = request.attribute(URI_TEMPLATE_ATTRIBUTE).map(Object::toString).orElse("UNKNOWN");
+        String path = SCHEME_AND_HOST.matcher(template).replaceFirst("");
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        return path.startsWith("/") ? path : "/" + path;
+    }
+
+    /**
+     * The resilience filters turn 5xx responses into {@link WebClientResponseException}s, which
+     * still carry the downstream status.
+     */
+    private void recordError(long start, Tags tags, Throwable ex) {
+        if (ex instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) ex).getRawStatusCode();
+            record(start, tags, status, outcome(status));
+        } else {
+            record(start, tags, ex instanceof WebClientRequestException ? "IO_ERROR" : "CLIENT_ERROR", "UNKNOWN");
+        }
+    }
+
+    private void record(long start, Tags tags, Object status, String outcome) {
+        Timer.builder("gateway.client.requests")
+            .description("Downstream calls made by the gateway")
+            .tags(tags)
+            .tags("status", status.toString(), "outcome", outcome)
+            .serviceLevelObjectives(properties.getSlo().toArray(new Duration[0]))
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return status >= 200 ? "SUCCESS" : "INFORMATIONAL";
+    }
+
+    private ClientRequest countRequestBytes(ClientRequest request, Tags tags) {
+        DistributionSummary size = size("gateway.client.request.size", "Request body sizes of downstream calls", tags);
+        return ClientRequest.from(request)
+            .body((outputMessage, context) -> request.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    AtomicLong bytes = new AtomicLong();
+                    return super.writeWith(Flux.from(body).doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount())))
+                        .doOnSuccess(done -> size.record(bytes.get()));
+                }
+
+                @Override
+                public Mono<Void> setComplete() {
+                    return super.setComplete().doOnSuccess(done -> size.record(0));
+                }
+            }, context))
+            .build();
+    }
+
+    private ClientResponse countResponseBytes(ClientResponse response, Tags tags) {
+        DistributionSummary size = size("gateway.client.response.size", "Response body sizes of downstream calls", tags);
+        AtomicLong bytes = new AtomicLong();
+        return response.mutate()
+            .body(body -> body
+                .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                .doOnComplete(() -> size.record(bytes.get())))
+            .build();
+    }
+
+    private DistributionSummary size(String name, String description, Tags tags) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,14 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+/**
+ * Thrown instead of sending a downstream call when the service already has as many calls in
+ * flight as its adaptive concurrency limit allows.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String serviceId, int limit) {
+        super("Concurrency limit of " + limit + " reached for " + serviceId);
+    }
+}
@@ -22,8 +22,9 @@ import lombok.extern.slf4j.Slf4j;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
-import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.api.dto.*;
 import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
 import org.springframework.stereotype.Component;
@@ -33,24 +34,54 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+
+import static java.util.stream.Collectors.joining;
+
 /**
  * @author Maciej Szarlinski
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class CustomersServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+
+    public CustomersServiceClient(WebClientRegistry webClients) {
+        this.webClient = webClients.get("customers-service");
+    }
 
     public Flux<OwnerDetails> getOwners() {
         return fluxQuery(OwnerDetails.class, "customers-service", "/owners");
     }
 
+    /**
+     * The owners list as the customers service sent it, for relaying without decoding.
+     */
+    @WithSpan
+    public Mono<ResponseEntity<Flux<DataBuffer>>> relayOwners() {
+        Span.current().setAttribute(WellKnownAttributes.REMOTE_APPLICATION, "customers-service");
+        Span.current().setAttribute(WellKnownAttributes.REMOTE_OPERATION, "/owners");
+        Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
+        return webClient.get()
+            .uri("http://customers-service/owners")
+            .retrieve()
+            .toEntityFlux(DataBuffer.class);
+    }
+
+    /**
+     * The given owners, fetched in one call. Owners that do not exist are left out, and the
+     * order is the customers service's, not that of {@code ownerIds}.
+     */
+    public Flux<OwnerDetails> getOwners(final Collection<Integer> ownerIds) {
+        return fluxQuery(OwnerDetails.class, "customers-service", "/owners?ids={ids}",
+            ownerIds.stream().map(Object::toString).collect(joining(",")));
+    }
+
     @WithSpan
     public Mono<OwnerDetails> getOwner(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().get()
+        return webClient.get()
             .uri("http://customers-service/owners/{ownerId}", ownerId)
             .retrieve()
             .onStatus(
@@ -62,7 +93,7 @@ public class CustomersServiceClient {
 //    @WithSpan
     public Mono<Void> updateOwner(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, final OwnerRequest ownerRequest) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().put()
+        return webClient.put()
             .uri("http://customers-service/owners/{ownerId}", ownerId)
             .body(Mono.just(ownerRequest), OwnerRequest.class)
             .retrieve()
@@ -72,7 +103,7 @@ public class CustomersServiceClient {
     @WithSpan
     public Mono<Void> addOwner(@SpanAttribute(WellKnownAttributes.OWNER_ID) final OwnerRequest ownerRequest) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().post()
+        return webClient.post()
             .uri("http://customers-service/owners")
             .body(Mono.just(ownerRequest), OwnerRequest.class)
             .retrieve()
@@ -86,7 +117,7 @@ public class CustomersServiceClient {
     @WithSpan
     public Mono<PetFull> getPet(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().get()
+        return webClient.get()
             .uri("http://customers-service/owners/{ownerId}/pets/{petId}", ownerId, petId)
             .retrieve()
             .bodyToMono(PetFull.class);
@@ -96,7 +127,7 @@ public class CustomersServiceClient {
     public Mono<Void> diagnosePet(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId) {
         log.info("DEBUG: Inside the diagnose API");
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().get()
+        return webClient.get()
                 .uri("http://customers-service/diagnose/owners/{ownerId}/pets/{petId}", ownerId, petId)
                 .retrieve()
                 .bodyToMono(Void.class);
@@ -104,7 +135,7 @@ public class CustomersServiceClient {
     @WithSpan
     public Mono<Void> updatePet(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId, final PetRequest petRequest) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().put()
+        return webClient.put()
             .uri("http://customers-service/owners/{ownerId}/pets/{petId}", ownerId, petId)
             .body(Mono.just(petRequest), PetRequest.class)
             .retrieve()
@@ -114,7 +145,7 @@ public class CustomersServiceClient {
     @WithSpan
     public Mono<PetFull> addPet(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final PetRequest petRequest) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().post()
+        return webClient.post()
             .uri("http://customers-service/owners/{ownerId}/pets", ownerId)
             .body(Mono.just(petRequest), PetRequest.class)
             .retrieve()
@@ -127,6 +158,6 @@ public class CustomersServiceClient {
                                   @SpanAttribute(WellKnownAttributes.REMOTE_OPERATION) String path,
                                   Object... params) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().get().uri(String.format("http://%s%s", host, path), params).retrieve().bodyToFlux(clazz);
+        return webClient.get().uri(String.format("http://%s%s", host, path), params).retrieve().bodyToFlux(clazz);
     }
 }
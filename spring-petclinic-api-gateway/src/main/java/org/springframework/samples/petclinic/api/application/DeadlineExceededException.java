@@ -0,0 +1,13 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+/**
+ * Thrown instead of sending a downstream call once the gateway request's time budget is used up.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String serviceId) {
+        super("Request deadline passed before calling " + serviceId);
+    }
+}
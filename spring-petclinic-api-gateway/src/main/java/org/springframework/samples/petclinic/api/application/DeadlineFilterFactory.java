@@ -0,0 +1,60 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.Order;
+import org.springframework.samples.petclinic.api.system.ClientPoolProperties;
+import org.springframework.samples.petclinic.api.system.DeadlineProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends the remaining {@link RequestDeadline} budget with every downstream call and fails calls
+ * whose budget is already spent without sending them. Calls made outside a gateway request, such
+ * as batched or refresh-ahead loads, get the service's response timeout as their budget.
+ */
+@Component
+@Order(10)
+public class DeadlineFilterFactory implements ClientFilterFactory {
+
+    private final DeadlineProperties properties;
+
+    private final ClientPoolProperties poolProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    public DeadlineFilterFactory(DeadlineProperties properties, ClientPoolProperties poolProperties,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.poolProperties = poolProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ExchangeFilterFunction create(String serviceId) {
+        if (!properties.isEnabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        Counter expired = Counter.builder("gateway.client.rejected")
+            .description("Downstream calls rejected without being sent")
+            .tags("service", serviceId, "reason", "deadline")
+            .register(meterRegistry);
+
+        return (request, next) -> Mono.deferContextual(context -> {
+            RequestDeadline deadline = context.getOrDefault(RequestDeadline.class, null);
+            long remaining = deadline != null ? deadline.remainingMillis()
+                : poolProperties.poolFor(serviceId).getResponseTimeout().toMillis();
+            if (remaining <= 0) {
+                expired.increment();
+                return Mono.error(new DeadlineExceededException(serviceId));
+            }
+            return next.exchange(ClientRequest.from(request)
+                .header(RequestDeadline.HEADER, Long.toString(remaining))
+                .build());
+        });
+    }
+}
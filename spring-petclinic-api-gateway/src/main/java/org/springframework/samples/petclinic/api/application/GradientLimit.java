@@ -0,0 +1,86 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.springframework.samples.petclinic.api.system.ConcurrencyLimitProperties;
+
+/**
+ * Gradient concurrency limit for one downstream service. Each successful call feeds its
+ * round-trip time; the limit is scaled by {@code tolerance * longRtt / rtt}, so it shrinks as soon
+ * as the service queues work and grows by a square-root headroom while latency stays flat.
+ * A timeout backs the limit off by 10%.
+ */
+final class GradientLimit {
+
+    private final ConcurrencyLimitProperties properties;
+
+    private double limit;
+
+    private double longRttNanos;
+
+    private int inFlight;
+
+    GradientLimit(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Reserves a slot, returning the number of calls in flight including this one, or 0 when the
+     * limit has been reached.
+     */
+    synchronized int tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return 0;
+        }
+        return ++inFlight;
+    }
+
+    /**
+     * Reserves a slot even over the limit, for calls already admitted against it by the
+     * {@link PriorityLanes}.
+     */
+    synchronized int acquire() {
+        return ++inFlight;
+    }
+
+    synchronized void release() {
+        inFlight--;
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            double window = properties.getLongWindow();
+            longRttNanos = longRttNanos * (1 - 1 / window) + rttNanos / window;
+        }
+        if (longRttNanos / rttNanos > 2) {
+            // Latency has dropped well below the long-term average (e.g. after an incident), let it catch up
+            longRttNanos *= 0.95;
+        }
+        if (inFlightAtStart < limit / 2) {
+            // Too little traffic to tell whether the service could take more
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / rttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        update(limit * (1 - properties.getSmoothing()) + target * properties.getSmoothing());
+    }
+
+    synchronized void onTimeout() {
+        update(limit * 0.9);
+    }
+
+    private void update(double newLimit) {
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
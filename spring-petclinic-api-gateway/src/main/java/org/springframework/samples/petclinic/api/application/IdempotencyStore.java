@@ -0,0 +1,132 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.api.system.IdempotencyProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per {@code Idempotency-Key}. A duplicate that arrives while the first
+ * request is in flight waits for its result, and one that arrives later gets the stored result
+ * until it is older than {@code ttl}. Failed writes are forgotten so they can be retried. Reusing
+ * a key for a different request is rejected with 422. The oldest keys are dropped first once
+ * {@code maxEntries} is reached.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final IdempotencyProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LinkedHashMap<String, Entry<?>> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.idempotency.size", entries, map -> {
+                synchronized (map) {
+                    return map.size();
+                }
+            })
+            .description("Idempotency keys in flight or remembered")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param name    low-cardinality write name, used as the metrics tag
+     * @param key     the client's idempotency key; without one the write always runs
+     * @param request what identifies the write, compared by {@code equals} when a key is reused
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String name, String key, Object request, Supplier<Mono<T>> call) {
+        if (key == null || key.isEmpty() || !properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            String entryKey = name + ':' + key;
+            Entry<T> created = new Entry<>(request);
+            // Cached, so the write runs to completion for later duplicates even if this caller goes away
+            created.result = Mono.defer(call)
+                .doOnSuccess(value -> created.completedAt = System.nanoTime())
+                .doOnError(ex -> remove(entryKey, created))
+                .cache();
+            Entry<?> entry;
+            synchronized (entries) {
+                entry = entries.get(entryKey);
+                if (entry != null && entry.isExpired(properties.getTtl().toNanos())) {
+                    entries.remove(entryKey);
+                    entry = null;
+                }
+                if (entry == null) {
+                    entries.put(entryKey, created);
+                    evictOverflow();
+                }
+            }
+            if (entry == null) {
+                counter(name, "executed").increment();
+                return created.result;
+            }
+            if (!Objects.equals(entry.request, request)) {
+                counter(name, "conflict").increment();
+                return Mono.error(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request"));
+            }
+            counter(name, entry.completedAt == null ? "joined" : "replayed").increment();
+            return (Mono<T>) entry.result;
+        });
+    }
+
+    private void remove(String entryKey, Entry<?> entry) {
+        synchronized (entries) {
+            entries.remove(entryKey, entry);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry<?>> eldest = entries.values().iterator();
+        while (eldest.hasNext() && entries.size() > properties.getMaxEntries()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private Counter counter(String name, String result) {
+        return Counter.builder("gateway.idempotency.requests")
+            .description("Writes with an idempotency key that ran (executed), waited for the first request (joined), "
+                + "got the stored result (replayed) or reused a key for a different request (conflict)")
+            .tags("write", name, "result", result)
+            .register(meterRegistry);
+    }
+
+    private static final class Entry<T> {
+
+        private final Object request;
+
+        private Mono<T> result;
+
+        private volatile Long completedAt;
+
+        private Entry(Object request) {
+            this.request = request;
+        }
+
+        private boolean isExpired(long ttlNanos) {
+            Long completed = completedAt;
+            return completed != null && System.nanoTime() - completed > ttlNanos;
+        }
+    }
+}
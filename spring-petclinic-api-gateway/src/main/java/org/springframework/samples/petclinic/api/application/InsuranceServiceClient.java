@@ -21,7 +21,8 @@ package org.springframework.samples.petclinic.api.application;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
-import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.api.dto.InsuranceDetail;
 import org.springframework.samples.petclinic.api.dto.PetInsurance;
 import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
@@ -30,28 +31,39 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * @author Maciej Szarlinski
  */
 @Component
-@RequiredArgsConstructor
 public class InsuranceServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final ParameterizedTypeReference<List<InsuranceDetail>> INSURANCE_LIST =
+        new ParameterizedTypeReference<List<InsuranceDetail>>() {
+        };
+
+    private final WebClient webClient;
+
+    private final ValidatorCache validatorCache;
+
+    public InsuranceServiceClient(WebClientRegistry webClients, ValidatorCache validatorCache) {
+        this.webClient = webClients.get("insurance-service");
+        this.validatorCache = validatorCache;
+    }
 
+    /**
+     * The insurance plans, revalidated against the copy seen last.
+     */
     public Flux<InsuranceDetail> getInsurances() {
-        // return Flux.empty().cast(InsuranceDetail.class);
-        return webClientBuilder.build().get()
-            // .uri("lb://insurance-service/insurances")
-            .uri("http://insurance-service/insurances/")
-            .retrieve()
-            .bodyToFlux(InsuranceDetail.class);
+        return validatorCache.get(webClient, "insurances", "http://insurance-service/insurances/", INSURANCE_LIST)
+            .flatMapIterable(ResponseEntity::getBody);
     }
 
     @WithSpan
     public Mono<Void> addPetInsurance(final PetInsurance petInsurance) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return webClient
                 .post()
                 .uri("http://insurance-service/pet-insurances/")
                 .body(Mono.just(petInsurance), PetInsurance.class)
@@ -61,9 +73,9 @@ public class InsuranceServiceClient {
     @WithSpan
     public Mono<PetInsurance> updatePetInsurance(@SpanAttribute(WellKnownAttributes.PET_ID) final int petId, final PetInsurance petInsurance) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return webClient
                 .put()
-                .uri("http://insurance-service/pet-insurances/" + petId + "/")
+                .uri("http://insurance-service/pet-insurances/{petId}/", petId)
                 .body(Mono.just(petInsurance), PetInsurance.class)
                 .retrieve()
                 .bodyToMono(PetInsurance.class);
@@ -71,9 +83,9 @@ public class InsuranceServiceClient {
     @WithSpan
     public Mono<PetInsurance> getPetInsurance(@SpanAttribute(WellKnownAttributes.PET_ID) final int petId) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return webClient
                 .get()
-                .uri("http://insurance-service/pet-insurances/" + petId + "/")
+                .uri("http://insurance-service/pet-insurances/{petId}/", petId)
                 .retrieve()
                 .bodyToMono(PetInsurance.class);
     }
@@ -0,0 +1,121 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.api.system.LastKnownGoodProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last successful response per key so it can be served while the backend is
+ * unavailable. Values are held serialized, which makes the memory cap exact; the least
+ * recently used entries are dropped first once {@code maxSize} or {@code maxEntries} is reached.
+ */
+@Slf4j
+@Component
+public class LastKnownGoodStore {
+
+    private final LastKnownGoodProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long totalBytes;
+
+    public LastKnownGoodStore(LastKnownGoodProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.last-known-good.size", this, store -> store.totalBytes)
+            .description("Bytes held by last-known-good responses")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public void put(String name, Object key, Object value) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            log.warn("Cannot keep last-known-good {} for {}", name, key, ex);
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(name + ':' + key, new Entry(body, System.nanoTime()));
+            totalBytes += body.length - (previous == null ? 0 : previous.body.length);
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Returns the last successful value for {@code key}, or an empty Mono when there is none
+     * younger than {@code maxAge}.
+     */
+    public <T> Mono<StaleValue<T>> get(String name, Object key, Class<T> type) {
+        return Mono.fromCallable(() -> {
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(name + ':' + key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            Duration age = Duration.ofNanos(System.nanoTime() - entry.storedAt);
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                return null;
+            }
+            Counter.builder("gateway.last-known-good.served")
+                .description("Stale responses served in place of a failed call")
+                .tag("name", name)
+                .register(meterRegistry)
+                .increment();
+            return new StaleValue<>(objectMapper.readValue(entry.body, type), age);
+        });
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (totalBytes > properties.getMaxSize().toBytes() || entries.size() > properties.getMaxEntries())) {
+            totalBytes -= eldest.next().body.length;
+            eldest.remove();
+        }
+    }
+
+    @Value
+    public static class StaleValue<T> {
+
+        T value;
+
+        Duration age;
+    }
+
+    private static final class Entry {
+
+        private final byte[] body;
+
+        private final long storedAt;
+
+        private Entry(byte[] body, long storedAt) {
+            this.body = body;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -20,7 +20,6 @@ package org.springframework.samples.petclinic.api.application;
 
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 import io.opentelemetry.api.trace.Span;
-import lombok.RequiredArgsConstructor;
 
 import org.springframework.samples.petclinic.api.dto.PetNutrition;
 
@@ -29,17 +28,20 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 @Component
-@RequiredArgsConstructor
 public class NutritionServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+
+    public NutritionServiceClient(WebClientRegistry webClients) {
+        this.webClient = webClients.get("nutrition-service");
+    }
 
     @WithSpan
     public Mono<PetNutrition> getPetNutrition(final String petType) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return webClient
                 .get()
-                .uri("http://nutrition-service/nutrition/" + petType + "/")
+                .uri("http://nutrition-service/nutrition/{petType}/", petType)
                 .retrieve()
                 .bodyToMono(PetNutrition.class);
     }
@@ -0,0 +1,130 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.OwnerBatchProperties;
+import org.springframework.samples.petclinic.api.system.VisitsBatchProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the details of many owners at once. The owners come from one customers-service call;
+ * their pets' visits are looked up in chunks of at most {@code gateway.visits-batch.max-ids} pets,
+ * a few chunks at a time. Owners are emitted in the order they were asked for, each chunk as soon
+ * as it and all chunks before it are complete. Unknown owners are left out. When the caller does
+ * not need visits, visits-service is not called at all.
+ */
+@Component
+@Slf4j
+public class OwnerBatchService {
+
+    private final CustomersServiceClient customersServiceClient;
+
+    private final VisitsBatcher visitsBatcher;
+
+    private final OwnerBatchProperties properties;
+
+    private final VisitsBatchProperties visitsBatchProperties;
+
+    private final Counter visitsFailures;
+
+    public OwnerBatchService(CustomersServiceClient customersServiceClient, VisitsBatcher visitsBatcher,
+                             OwnerBatchProperties properties, VisitsBatchProperties visitsBatchProperties,
+                             MeterRegistry meterRegistry) {
+        this.customersServiceClient = customersServiceClient;
+        this.visitsBatcher = visitsBatcher;
+        this.properties = properties;
+        this.visitsBatchProperties = visitsBatchProperties;
+        this.visitsFailures = Counter.builder("gateway.owner-batch.visits.failures")
+            .description("Owner chunks returned without visits because the lookup failed")
+            .register(meterRegistry);
+    }
+
+    public Flux<OwnerDetails> getOwners(final List<Integer> ownerIds, final boolean withVisits) {
+        List<Integer> ids = ownerIds.stream().distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        Mono<Map<Integer, OwnerDetails>> owners = customersServiceClient.getOwners(ids)
+            .collectMap(OwnerDetails::getId);
+        if (!withVisits) {
+            return owners.flatMapIterable(found -> inOrder(ids, found));
+        }
+        return owners
+            .flatMapIterable(found -> chunks(inOrder(ids, found)))
+            .flatMapSequential(this::withVisits, properties.getConcurrency())
+            .flatMapIterable(Function.identity());
+    }
+
+    private static List<OwnerDetails> inOrder(List<Integer> ids, Map<Integer, OwnerDetails> owners) {
+        return ids.stream()
+            .map(owners::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Splits the owners, in the requested order, into runs whose pets fit into one visits lookup.
+     * An owner with more pets than that gets a chunk of its own.
+     */
+    private List<List<OwnerDetails>> chunks(List<OwnerDetails> owners) {
+        List<List<OwnerDetails>> chunks = new ArrayList<>();
+        List<OwnerDetails> chunk = new ArrayList<>();
+        int pets = 0;
+        for (OwnerDetails owner : owners) {
+            if (!chunk.isEmpty() && pets + owner.getPets().size() > visitsBatchProperties.getMaxIds()) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                pets = 0;
+            }
+            chunk.add(owner);
+            pets += owner.getPets().size();
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private Mono<List<OwnerDetails>> withVisits(List<OwnerDetails> owners) {
+        List<Integer> petIds = owners.stream()
+            .flatMap(owner -> owner.getPetIds().stream())
+            .collect(Collectors.toList());
+        Mono<Visits> visits = petIds.isEmpty() ? Mono.just(new Visits()) : visitsBatcher.getVisitsForPets(petIds)
+            .onErrorResume(ex -> {
+                log.warn("Returning {} owners without visits: {}", owners.size(), ex.toString());
+                visitsFailures.increment();
+                return Mono.just(new Visits());
+            });
+        return visits.map(found -> {
+            Map<Integer, List<VisitDetails>> byPet = found.getItems().stream()
+                .filter(visit -> visit.getPetId() != null)
+                .collect(Collectors.groupingBy(VisitDetails::getPetId));
+            return owners.stream()
+                .map(owner -> {
+                    OwnerDetails details = owner.copy();
+                    for (PetDetails pet : details.getPets()) {
+                        pet.getVisits().addAll(byPet.getOrDefault(pet.getId(), Collections.emptyList()));
+                    }
+                    return details;
+                })
+                .collect(Collectors.toList());
+        });
+    }
+}
@@ -0,0 +1,120 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.samples.petclinic.api.dto.DashboardSection;
+import org.springframework.samples.petclinic.api.dto.OwnerDashboard;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.system.DashboardProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Assembles the owner dashboard. Once the owner is known, its visits, and each pet's insurance,
+ * payments and nutrition facts are fetched concurrently, at most {@code parallelism} at a time.
+ * Each section has its own timeout; a section that fails or times out is marked as such instead
+ * of failing the dashboard. Only a failure to load the owner fails the request.
+ */
+@Component
+public class OwnerDashboardService {
+
+    private final CustomersServiceClient customersServiceClient;
+
+    private final VisitsBatcher visitsBatcher;
+
+    private final InsuranceServiceClient insuranceServiceClient;
+
+    private final PaymentClient paymentClient;
+
+    private final NutritionServiceClient nutritionServiceClient;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final DashboardProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public OwnerDashboardService(CustomersServiceClient customersServiceClient, VisitsBatcher visitsBatcher,
+                                 InsuranceServiceClient insuranceServiceClient, PaymentClient paymentClient,
+                                 NutritionServiceClient nutritionServiceClient, RequestCoalescer requestCoalescer,
+                                 DashboardProperties properties, MeterRegistry meterRegistry) {
+        this.customersServiceClient = customersServiceClient;
+        this.visitsBatcher = visitsBatcher;
+        this.insuranceServiceClient = insuranceServiceClient;
+        this.paymentClient = paymentClient;
+        this.nutritionServiceClient = nutritionServiceClient;
+        this.requestCoalescer = requestCoalescer;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<OwnerDashboard> getDashboard(int ownerId) {
+        return requestCoalescer.coalesce("owner", ownerId, () -> customersServiceClient.getOwner(ownerId))
+            .flatMap(this::fanOut);
+    }
+
+    private Mono<OwnerDashboard> fanOut(OwnerDetails owner) {
+        List<Mono<Consumer<OwnerDashboard>>> sections = new ArrayList<>();
+        sections.add(section("visits", visitsBatcher.getVisitsForPets(owner.getPetIds()), OwnerDashboard::setVisits));
+        Set<String> petTypes = new LinkedHashSet<>();
+        for (PetDetails pet : owner.getPets()) {
+            int petId = pet.getId();
+            sections.add(section("insurance", insuranceServiceClient.getPetInsurance(petId),
+                (dashboard, insurance) -> dashboard.getInsurances().put(petId, insurance)));
+            sections.add(section("payments", paymentClient.getPayments(owner.getId(), petId).collectList(),
+                (dashboard, payments) -> dashboard.getPayments().put(petId, payments)));
+            if (pet.getType() != null && pet.getType().getName() != null) {
+                petTypes.add(pet.getType().getName());
+            }
+        }
+        for (String petType : petTypes) {
+            sections.add(section("nutrition", nutritionServiceClient.getPetNutrition(petType),
+                (dashboard, nutrition) -> dashboard.getNutrition().put(petType, nutrition)));
+        }
+
+        // Sections complete on different threads; they are applied to the dashboard once all are in
+        return Flux.fromIterable(sections)
+            .flatMap(section -> section, properties.getParallelism())
+            .collectList()
+            .map(results -> {
+                OwnerDashboard dashboard = new OwnerDashboard(owner.copy());
+                results.forEach(result -> result.accept(dashboard));
+                return dashboard;
+            });
+    }
+
+    private <T> Mono<Consumer<OwnerDashboard>> section(String name, Mono<T> call,
+                                                       BiConsumer<OwnerDashboard, DashboardSection<T>> apply) {
+        return Mono.defer(() -> call)
+            .timeout(properties.getSectionTimeout())
+            .map(DashboardSection::ok)
+            .switchIfEmpty(Mono.fromSupplier(() -> DashboardSection.ok(null)))
+            .onErrorResume(ex -> Mono.just(toSection(ex)))
+            .doOnNext(section -> meterRegistry.counter("gateway.dashboard.sections",
+                "section", name, "status", section.getStatus().name()).increment())
+            .map(section -> dashboard -> apply.accept(dashboard, section));
+    }
+
+    private static <T> DashboardSection<T> toSection(Throwable ex) {
+        if (ex instanceof WebClientResponseException.NotFound) {
+            // Nothing recorded for this pet yet, e.g. no insurance
+            return DashboardSection.ok(null);
+        }
+        if (ex instanceof TimeoutException || ex instanceof DeadlineExceededException) {
+            return DashboardSection.timedOut();
+        }
+        return DashboardSection.failed();
+    }
+}
@@ -0,0 +1,338 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.system.PrefetchProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Fetches what the UI asks for right after an owner, the pet, visits, insurance and nutrition facts
+ * of each pet, before it is asked for. Results are kept for {@code ttl} and read through
+ * {@link #get}; a request arriving while its prefetch is still in flight makes its own call
+ * instead of waiting behind it. Owners are kept least recently used first up to {@code maxOwners}; dropping an
+ * owner cancels its calls still running. Prefetched values that are never read are counted as wasted.
+ * Prefetch calls are speculative and run in the {@link RequestPriority#SYNTHETIC} lane, so they never
+ * take capacity from interactive requests.
+ */
+@Slf4j
+@Component
+public class OwnerPrefetcher {
+
+    public static final String PET = "pet";
+
+    public static final String VISITS = "visits";
+
+    public static final String PET_INSURANCE = "pet-insurance";
+
+    public static final String NUTRITION = "nutrition";
+
+    private final CustomersServiceClient customersServiceClient;
+
+    private final VisitsServiceClient visitsServiceClient;
+
+    private final InsuranceServiceClient insuranceServiceClient;
+
+    private final NutritionServiceClient nutritionServiceClient;
+
+    private final PrefetchProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final RateLimiter rateLimiter;
+
+    private final Counter cancelled;
+
+    private final LinkedHashMap<Integer, OwnerEntry> owners = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final Map<String, Prefetched> values = new HashMap<>();
+
+    public OwnerPrefetcher(CustomersServiceClient customersServiceClient, VisitsServiceClient visitsServiceClient,
+                           InsuranceServiceClient insuranceServiceClient, NutritionServiceClient nutritionServiceClient,
+                           PrefetchProperties properties, MeterRegistry meterRegistry) {
+        this.customersServiceClient = customersServiceClient;
+        this.visitsServiceClient = visitsServiceClient;
+        this.insuranceServiceClient = insuranceServiceClient;
+        this.nutritionServiceClient = nutritionServiceClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = RateLimiter.of("prefetch", RateLimiterConfig.custom()
+            .limitForPeriod(properties.getOwnersPerSecond())
+            .limitRefreshPeriod(Duration.ofSeconds(1))
+            .timeoutDuration(Duration.ZERO)
+            .build());
+        this.cancelled = Counter.builder("gateway.prefetch.cancelled")
+            .description("Owner prefetches cancelled before all their calls completed")
+            .register(meterRegistry);
+        Gauge.builder("gateway.prefetch.owners.size", owners, map -> {
+                synchronized (owners) {
+                    return map.size();
+                }
+            })
+            .description("Owners with prefetched data")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts prefetching for the pets of {@code owner} in the background, unless it was prefetched
+     * less than {@code ttl} ago or the prefetch rate is exhausted.
+     */
+    public void prefetch(OwnerDetails owner) {
+        if (!properties.isEnabled() || properties.getResources().isEmpty() || owner.getPets().isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (owners) {
+            OwnerEntry existing = owners.get(owner.getId());
+            if (existing != null && !isExpired(existing, now)) {
+                countOwner("fresh");
+                return;
+            }
+        }
+        if (!rateLimiter.acquirePermission()) {
+            countOwner("rate-limited");
+            return;
+        }
+        OwnerEntry entry = new OwnerEntry(now);
+        List<Mono<?>> calls;
+        synchronized (owners) {
+            OwnerEntry previous = owners.put(owner.getId(), entry);
+            if (previous != null) {
+                discard(previous);
+            }
+            evictOverflow(now);
+            calls = calls(owner, entry);
+        }
+        countOwner("started");
+        entry.calls.update(Flux.merge(calls)
+            .take(properties.getTtl())
+            .doOnCancel(cancelled::increment)
+            .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC))
+            .subscribe());
+    }
+
+    /**
+     * The prefetched value for {@code name} and {@code key}, or the result of {@code call} when there
+     * is none yet. A reader never waits for a prefetch still in flight: that call runs in the
+     * synthetic lane, and the reader's own call runs in the reader's lane.
+     */
+    public <T> Mono<T> get(String name, Object key, Class<T> type, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Object value = read(name + ':' + key);
+            if (value != null) {
+                countLookup(name, "hit");
+                return Mono.just(type.cast(value));
+            }
+            countLookup(name, "miss");
+            return call.get();
+        });
+    }
+
+    /**
+     * Drops a prefetched value after a write made it out of date.
+     */
+    public void invalidate(String name, Object key) {
+        synchronized (owners) {
+            Prefetched prefetched = values.remove(name + ':' + key);
+            if (prefetched != null) {
+                drop(prefetched);
+            }
+        }
+    }
+
+    /**
+     * Cancels the calls still running for {@code ownerId} and drops what they fetched, after a write
+     * changed the owner's pets. The next lookup of the owner then prefetches again instead of being
+     * skipped as fresh.
+     */
+    public void cancel(int ownerId) {
+        synchronized (owners) {
+            OwnerEntry entry = owners.remove(ownerId);
+            if (entry != null) {
+                discard(entry);
+            }
+        }
+    }
+
+    @PreDestroy
+    void cancelAll() {
+        synchronized (owners) {
+            owners.values().forEach(this::discard);
+            owners.clear();
+        }
+    }
+
+    private List<Mono<?>> calls(OwnerDetails owner, OwnerEntry entry) {
+        Set<String> resources = properties.getResources();
+        int ownerId = owner.getId();
+        List<Mono<?>> calls = new ArrayList<>();
+        Set<String> petTypes = new LinkedHashSet<>();
+        for (PetDetails pet : owner.getPets()) {
+            int petId = pet.getId();
+            if (resources.contains(PET)) {
+                calls.add(fetch(entry, PET, ownerId + "/" + petId, () -> customersServiceClient.getPet(ownerId, petId)));
+            }
+            if (resources.contains(VISITS)) {
+                calls.add(fetch(entry, VISITS, ownerId + "/" + petId,
+                    () -> visitsServiceClient.getVisitsForOwnersPets(ownerId, petId)));
+            }
+            if (resources.contains(PET_INSURANCE)) {
+                calls.add(fetch(entry, PET_INSURANCE, petId, () -> insuranceServiceClient.getPetInsurance(petId)));
+            }
+            if (pet.getType() != null && pet.getType().getName() != null) {
+                petTypes.add(pet.getType().getName());
+            }
+        }
+        if (resources.contains(NUTRITION)) {
+            petTypes.forEach(petType ->
+                calls.add(fetch(entry, NUTRITION, petType, () -> nutritionServiceClient.getPetNutrition(petType))));
+        }
+        return calls;
+    }
+
+    /**
+     * Registers the value, which lookups are served once the call has completed.
+     */
+    private Mono<?> fetch(OwnerEntry entry, String name, Object key, Supplier<Mono<?>> call) {
+        String valueKey = name + ':' + key;
+        Prefetched prefetched = new Prefetched(entry, name);
+        Prefetched previous = values.put(valueKey, prefetched);
+        if (previous != null) {
+            drop(previous);
+        }
+        entry.keys.add(valueKey);
+        return Mono.defer(call)
+            .doOnNext(value -> prefetched.value = value)
+            .onErrorResume(ex -> {
+                log.debug("Prefetch of {} {} failed: {}", name, key, ex.toString());
+                Counter.builder("gateway.prefetch.failures")
+                    .description("Prefetch calls that failed")
+                    .tag("name", name)
+                    .register(meterRegistry)
+                    .increment();
+                return Mono.empty();
+            });
+    }
+
+    private Object read(String key) {
+        synchronized (owners) {
+            Prefetched prefetched = values.get(key);
+            if (prefetched == null || prefetched.value == null) {
+                return null;
+            }
+            if (isExpired(prefetched.entry, System.nanoTime())) {
+                values.remove(key);
+                drop(prefetched);
+                return null;
+            }
+            prefetched.read = true;
+            return prefetched.value;
+        }
+    }
+
+    private void evictOverflow(long now) {
+        Iterator<OwnerEntry> eldest = owners.values().iterator();
+        while (eldest.hasNext()) {
+            OwnerEntry entry = eldest.next();
+            if (owners.size() <= properties.getMaxOwners() && !isExpired(entry, now)) {
+                return;
+            }
+            eldest.remove();
+            discard(entry);
+        }
+    }
+
+    private void discard(OwnerEntry entry) {
+        entry.calls.dispose();
+        for (String key : entry.keys) {
+            Prefetched prefetched = values.get(key);
+            if (prefetched != null && prefetched.entry == entry) {
+                values.remove(key);
+                drop(prefetched);
+            }
+        }
+    }
+
+    private void drop(Prefetched prefetched) {
+        if (prefetched.value != null && !prefetched.read) {
+            Counter.builder("gateway.prefetch.wasted")
+                .description("Prefetched values dropped without being read")
+                .tag("name", prefetched.name)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    private boolean isExpired(OwnerEntry entry, long now) {
+        return now - entry.createdAt > properties.getTtl().toNanos();
+    }
+
+    private void countOwner(String result) {
+        Counter.builder("gateway.prefetch.owners")
+            .description("Owner lookups that could start a prefetch, by outcome")
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private void countLookup(String name, String result) {
+        Counter.builder("gateway.prefetch.lookups")
+            .description("Endpoint lookups answered from prefetched data (hit) or not (miss)")
+            .tag("name", name)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static final class OwnerEntry {
+
+        private final long createdAt;
+
+        private final Disposable.Swap calls = Disposables.swap();
+
+        private final List<String> keys = new ArrayList<>();
+
+        private OwnerEntry(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Prefetched {
+
+        private final OwnerEntry entry;
+
+        private final String name;
+
+        private volatile Object value;
+
+        private boolean read;
+
+        private Prefetched(OwnerEntry entry, String name) {
+            this.entry = entry;
+            this.name = name;
+        }
+    }
+}
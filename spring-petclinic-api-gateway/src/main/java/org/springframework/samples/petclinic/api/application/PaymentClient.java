@@ -20,8 +20,9 @@
 package org.springframework.samples.petclinic.api.application;
 
 import org.springframework.stereotype.Component;
-import lombok.RequiredArgsConstructor;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.api.dto.PaymentAdd;
 import org.springframework.samples.petclinic.api.dto.PaymentDetail;
 import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
@@ -34,23 +35,38 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
-@RequiredArgsConstructor
 public class PaymentClient {
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+
+    public PaymentClient(WebClientRegistry webClients) {
+        this.webClient = webClients.get("payment-service");
+    }
 
     @WithSpan
     public Flux<PaymentDetail> getPayments(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().get()
+        return webClient.get()
                 .uri("http://payment-service/owners/{ownerId}/pets/{petId}/payments", ownerId, petId)
                 .retrieve()
                 .bodyToFlux(PaymentDetail.class);
     }
 
+    /**
+     * The payments list as the payment service sent it, for relaying without decoding.
+     */
+    @WithSpan
+    public Mono<ResponseEntity<Flux<DataBuffer>>> relayPayments(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId) {
+        Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
+        return webClient.get()
+                .uri("http://payment-service/owners/{ownerId}/pets/{petId}/payments", ownerId, petId)
+                .retrieve()
+                .toEntityFlux(DataBuffer.class);
+    }
+
     @WithSpan
     public Mono<PaymentDetail> getPaymentById(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId, @SpanAttribute(WellKnownAttributes.ORDER_ID) final String paymentId) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().get()
+        return webClient.get()
                 .uri("http://payment-service/owners/{ownerId}/pets/{petId}/payments/{paymentId}", ownerId, petId,
                         paymentId)
                 .retrieve()
@@ -60,7 +76,7 @@ public class PaymentClient {
     @WithSpan
     public Mono<PaymentDetail> addPayment(@SpanAttribute(WellKnownAttributes.OWNER_ID) final int ownerId, @SpanAttribute(WellKnownAttributes.PET_ID) final int petId, @SpanAttribute(WellKnownAttributes.ORDER_ID) final PaymentAdd paymentAdd) {
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build().post()
+        return webClient.post()
                 .uri("http://payment-service/owners/{ownerId}/pets/{petId}/payments", ownerId, petId)
                 .body(Mono.just(paymentAdd), PaymentAdd.class)
                 .retrieve()
@@ -68,7 +84,7 @@ public class PaymentClient {
     }
 
     public Mono<PaymentDetail> cleanPaymentTable() {
-        return webClientBuilder.build().delete()
+        return webClient.delete()
                 .uri("http://payment-service/clean-db")
                 .retrieve()
                 .bodyToMono(PaymentDetail.class);
@@ -0,0 +1,95 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.Order;
+import org.springframework.samples.petclinic.api.system.PriorityLaneProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Puts every downstream call in the {@link PriorityLanes} of its service, by the
+ * {@link RequestPriority} of the gateway request it is made for, or the {@link SharedPriority} of
+ * the requests waiting for it. Calls that find their lane's queue
+ * full, or wait longer than {@code maxWait}, fail with {@link PriorityLaneFullException}. Runs
+ * before the deadline is taken, so the budget sent downstream excludes the time spent queued.
+ * <p>
+ * The lanes are sized from the service's adaptive concurrency limit and bulkhead, and the calls
+ * they admit are not rejected by the adaptive limit again. Interactive calls therefore wait ahead
+ * of synthetic ones for the limited slots instead of failing behind them.
+ */
+@Component
+@Order(5)
+public class PriorityLaneFilterFactory implements ClientFilterFactory {
+
+    /**
+     * Set on calls admitted by the lanes.
+     */
+    static final String ADMITTED_ATTRIBUTE = PriorityLaneFilterFactory.class.getName() + ".admitted";
+
+    private final PriorityLaneProperties properties;
+
+    private final AdaptiveConcurrencyFilterFactory concurrencyLimits;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    public PriorityLaneFilterFactory(PriorityLaneProperties properties, AdaptiveConcurrencyFilterFactory concurrencyLimits,
+                                     BulkheadRegistry bulkheadRegistry, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.concurrencyLimits = concurrencyLimits;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ExchangeFilterFunction create(String serviceId) {
+        if (!properties.isEnabled()) {
+            return (request, next) -> next.exchange(request);
+        }
+        Optional<GradientLimit> limit = concurrencyLimits.limitFor(serviceId);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(serviceId);
+        IntSupplier capacity = () -> Math.min(bulkhead.getMetrics().getMaxAllowedConcurrentCalls(),
+            limit.map(GradientLimit::getLimit).orElse(Integer.MAX_VALUE));
+        PriorityLanes lanes = new PriorityLanes(properties, capacity);
+        for (RequestPriority priority : RequestPriority.values()) {
+            String lane = priority.name().toLowerCase();
+            Gauge.builder("gateway.client.lanes.in-flight", lanes, l -> l.inFlight(priority))
+                .description("Calls in flight to the service from the lane")
+                .tags("service", serviceId, "lane", lane)
+                .register(meterRegistry);
+            Gauge.builder("gateway.client.lanes.queued", lanes, l -> l.queued(priority))
+                .description("Calls waiting in the lane for capacity")
+                .tags("service", serviceId, "lane", lane)
+                .register(meterRegistry);
+        }
+        Counter rejections = Counter.builder("gateway.client.rejected")
+            .description("Downstream calls rejected without being sent")
+            .tags("service", serviceId, "reason", "priority-lane")
+            .register(meterRegistry);
+
+        return (request, next) -> Mono.deferContextual(context -> {
+            SharedPriority shared = context.getOrDefault(SharedPriority.class, null);
+            RequestPriority requested = shared != null
+                ? shared.get() : context.getOrDefault(RequestPriority.class, RequestPriority.INTERACTIVE);
+            Mono<RequestPriority> admitted = shared != null
+                ? lanes.acquire(serviceId, shared) : lanes.acquire(serviceId, requested).thenReturn(requested);
+            return admitted
+                .timeout(properties.getMaxWait(), Mono.error(() -> new PriorityLaneFullException(serviceId, requested)))
+                .doOnError(PriorityLaneFullException.class, ex -> rejections.increment())
+                .flatMap(priority -> Mono.defer(() -> next.exchange(ClientRequest.from(request).attribute(ADMITTED_ATTRIBUTE, true).build()))
+                    .doFinally(signal -> lanes.release(priority)));
+        });
+    }
+}
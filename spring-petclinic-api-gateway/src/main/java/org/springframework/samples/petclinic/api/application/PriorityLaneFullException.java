@@ -0,0 +1,14 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+/**
+ * Thrown instead of sending a downstream call when its priority lane's queue is full, or the call
+ * waited in the queue for longer than allowed.
+ */
+public class PriorityLaneFullException extends RuntimeException {
+
+    public PriorityLaneFullException(String serviceId, RequestPriority priority) {
+        super("No capacity for " + priority.name().toLowerCase() + " calls to " + serviceId);
+    }
+}
@@ -0,0 +1,202 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.springframework.samples.petclinic.api.system.PriorityLaneProperties;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Concurrency quotas and queues of the priority lanes in front of one downstream service. A call
+ * starts when the service and its lane are both under their limit and no call of the same or a
+ * higher priority is queued; otherwise it waits in its lane's queue. Freed capacity goes to the
+ * highest-priority queue first, so a lower lane only gets capacity no higher lane is waiting for.
+ * <p>
+ * The service's limit is the lower of {@code maxConcurrency} and the live {@code capacity} of the
+ * limiters behind the lanes, so calls queue here by priority instead of being rejected there.
+ * Each lane takes at most its {@code maxShare} of that limit, which keeps the rest free for
+ * interactive calls while synthetic calls fill their lane.
+ */
+final class PriorityLanes {
+
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final PriorityLaneProperties properties;
+
+    private final IntSupplier capacity;
+
+    private final int[] inFlight = new int[PRIORITIES.length];
+
+    private final List<Deque<Waiter>> queues = new ArrayList<>();
+
+    private int total;
+
+    PriorityLanes(PriorityLaneProperties properties, IntSupplier capacity) {
+        this.properties = properties;
+        this.capacity = capacity;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Completes once the call may start, or fails with {@link PriorityLaneFullException} when the
+     * lane's queue is full. Every successful acquire must be followed by a {@link #release}.
+     * Cancelling while queued leaves the queue.
+     */
+    Mono<Void> acquire(String serviceId, RequestPriority priority) {
+        return acquire(serviceId, priority, Mono.never()).then();
+    }
+
+    /**
+     * Like {@link #acquire(String, RequestPriority)} for a call shared by several requests. The call
+     * queues in the lane of the shared priority and moves to the higher lane if the priority is
+     * raised while it waits. Completes with the lane to {@link #release}.
+     */
+    Mono<RequestPriority> acquire(String serviceId, SharedPriority priority) {
+        return acquire(serviceId, priority.get(), priority.raised());
+    }
+
+    private Mono<RequestPriority> acquire(String serviceId, RequestPriority priority, Mono<RequestPriority> raised) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(priority, sink);
+            sink.onCancel(() -> cancel(waiter));
+            boolean granted = false;
+            boolean rejected = false;
+            synchronized (this) {
+                if (canStart(priority)) {
+                    // Not granted if cancelled already
+                    granted = waiter.grant();
+                    if (granted) {
+                        start(priority);
+                    }
+                } else if (queues.get(priority.ordinal()).size() < properties.laneFor(priority).getMaxQueue()) {
+                    queues.get(priority.ordinal()).add(waiter);
+                    sink.onDispose(raised.subscribe(higher -> raise(waiter, higher)));
+                } else {
+                    rejected = true;
+                }
+            }
+            if (granted) {
+                sink.success(priority);
+            } else if (rejected) {
+                sink.error(new PriorityLaneFullException(serviceId, priority));
+            }
+        });
+    }
+
+    void release(RequestPriority priority) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight[priority.ordinal()]--;
+            total--;
+            dispatch(granted);
+        }
+        granted.forEach(waiter -> waiter.sink.success(waiter.priority));
+    }
+
+    private void raise(Waiter waiter, RequestPriority higher) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            if (higher.compareTo(waiter.priority) >= 0 || !queues.get(waiter.priority.ordinal()).remove(waiter)) {
+                return;
+            }
+            waiter.priority = higher;
+            queues.get(higher.ordinal()).add(waiter);
+            dispatch(granted);
+        }
+        granted.forEach(next -> next.sink.success(next.priority));
+    }
+
+    synchronized int inFlight(RequestPriority priority) {
+        return inFlight[priority.ordinal()];
+    }
+
+    synchronized int queued(RequestPriority priority) {
+        return queues.get(priority.ordinal()).size();
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.cancel()) {
+            synchronized (this) {
+                queues.get(waiter.priority.ordinal()).remove(waiter);
+            }
+        } else {
+            // Granted, but cancelled before the call could start
+            release(waiter.priority);
+        }
+    }
+
+    private boolean canStart(RequestPriority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (!queues.get(i).isEmpty()) {
+                return false;
+            }
+        }
+        return hasCapacity(priority);
+    }
+
+    private boolean hasCapacity(RequestPriority priority) {
+        int limit = Math.min(properties.getMaxConcurrency(), capacity.getAsInt());
+        PriorityLaneProperties.Lane lane = properties.laneFor(priority);
+        int laneLimit = Math.min(lane.getMaxConcurrency(), Math.max(1, (int) (limit * lane.getMaxShare())));
+        return total < limit && inFlight[priority.ordinal()] < laneLimit;
+    }
+
+    private void start(RequestPriority priority) {
+        inFlight[priority.ordinal()]++;
+        total++;
+    }
+
+    private void dispatch(List<Waiter> granted) {
+        for (RequestPriority priority : PRIORITIES) {
+            Deque<Waiter> queue = queues.get(priority.ordinal());
+            while (!queue.isEmpty() && hasCapacity(priority)) {
+                Waiter waiter = queue.poll();
+                if (waiter.grant()) {
+                    start(priority);
+                    granted.add(waiter);
+                }
+            }
+            if (!queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private static final int WAITING = 0;
+
+        private static final int GRANTED = 1;
+
+        private static final int CANCELLED = 2;
+
+        // Changed under the lanes' lock, and only while the waiter is queued
+        private RequestPriority priority;
+
+        private final MonoSink<RequestPriority> sink;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(RequestPriority priority, MonoSink<RequestPriority> sink) {
+            this.priority = priority;
+            this.sink = sink;
+        }
+
+        private boolean grant() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        private boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+    }
+}
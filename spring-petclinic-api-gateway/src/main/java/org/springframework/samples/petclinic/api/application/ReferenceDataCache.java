@@ -0,0 +1,176 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.api.system.ReferenceCacheProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Caches reference data lists as serialized JSON, so a hit is written to the client
+ * without going through Jackson, together with an ETag hashed from it once on load.
+ * Entries are refreshed in the background before they expire, and the least recently
+ * used entry is evicted beyond {@code maxEntries}.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private static final String CACHE_NAME = "gateway-reference-data";
+
+    private final ReferenceCacheProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final Map<String, Entry> entries;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter refreshes;
+
+    private final Counter evictions;
+
+    public ReferenceDataCache(ReferenceCacheProperties properties, ObjectMapper objectMapper,
+                              RequestCoalescer requestCoalescer, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.requestCoalescer = requestCoalescer;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                boolean evict = size() > properties.getMaxEntries();
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        this.hits = cacheCounter("cache.gets", "result", "hit", meterRegistry);
+        this.misses = cacheCounter("cache.gets", "result", "miss", meterRegistry);
+        this.refreshes = cacheCounter("cache.puts", "reason", "refresh", meterRegistry);
+        this.evictions = cacheCounter("cache.evictions", "reason", "size", meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size)
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+    }
+
+    private static Counter cacheCounter(String name, String tag, String value, MeterRegistry meterRegistry) {
+        return Counter.builder(name).tags("cache", CACHE_NAME, tag, value).register(meterRegistry);
+    }
+
+    /**
+     * Returns the JSON array for {@code key}, loading it with {@code loader} when absent or expired.
+     */
+    public <T> Mono<byte[]> get(String key, Supplier<Flux<T>> loader) {
+        return getJson(key, loader).map(Json::getBody);
+    }
+
+    /**
+     * Like {@link #get}, but with the ETag of the JSON array.
+     */
+    public <T> Mono<Json> getJson(String key, Supplier<Flux<T>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get().collectList().map(this::serialize);
+        }
+        return Mono.defer(() -> {
+            Entry entry = lookup(key);
+            long now = System.nanoTime();
+            if (entry != null && now - entry.loadedAt < properties.getTtl().toNanos()) {
+                hits.increment();
+                if (now - entry.loadedAt > refreshAheadNanos() && entry.refreshing.compareAndSet(false, true)) {
+                    refresh(key, loader, entry);
+                }
+                return Mono.just(entry.json);
+            }
+            misses.increment();
+            return load(key, loader);
+        });
+    }
+
+    private <T> Mono<Json> load(String key, Supplier<Flux<T>> loader) {
+        return requestCoalescer.coalesce("reference-data", key, () -> loader.get()
+            .collectList()
+            .map(this::serialize)
+            .doOnNext(json -> store(key, json)));
+    }
+
+    private <T> void refresh(String key, Supplier<Flux<T>> loader, Entry stale) {
+        load(key, loader).subscribe(
+            json -> refreshes.increment(),
+            ex -> {
+                stale.refreshing.set(false);
+                log.warn("Refresh of reference data '{}' failed, serving cached copy until it expires", key, ex);
+            });
+    }
+
+    private long refreshAheadNanos() {
+        return (long) (properties.getTtl().toNanos() * properties.getRefreshAhead());
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void store(String key, Json json) {
+        synchronized (entries) {
+            entries.put(key, new Entry(json, System.nanoTime()));
+        }
+    }
+
+    private Json serialize(List<?> items) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(items);
+        } catch (JsonProcessingException ex) {
+            throw Exceptions.propagate(ex);
+        }
+        return new Json(body, '"' + DigestUtils.md5DigestAsHex(body) + '"');
+    }
+
+    /**
+     * A cached list as a JSON array, with a strong ETag for it.
+     */
+    @Value
+    public static class Json {
+
+        byte[] body;
+
+        String eTag;
+    }
+
+    private static final class Entry {
+
+        private final Json json;
+
+        private final long loadedAt;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(Json json, long loadedAt) {
+            this.json = json;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
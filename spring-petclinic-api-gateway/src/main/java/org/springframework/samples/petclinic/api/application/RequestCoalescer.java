@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for idempotent lookups: concurrent callers asking for the same key share one
+ * in-flight downstream call. Nothing is kept once the call completes, so this never serves
+ * stale data. Results are shared between callers and must not be mutated. The shared call runs in
+ * the lane of the highest {@link RequestPriority} among its callers, see {@link SharedPriority}.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param name low-cardinality lookup name, used as the metrics tag
+     * @param key  identifies the resource within that lookup, e.g. the owner id
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String name, Object key, Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            String flightKey = name + ':' + key;
+            RequestPriority priority = context.getOrDefault(RequestPriority.class, RequestPriority.INTERACTIVE);
+            Flight<T> created = new Flight<>(priority);
+            created.result = Mono.defer(call)
+                .contextWrite(flightContext -> flightContext.put(SharedPriority.class, created.priority))
+                .doFinally(signal -> {
+                    inFlight.remove(flightKey, created);
+                    callersPerFlight(name).record(created.callers.get());
+                })
+                .cache();
+            Flight<?> flight = inFlight.putIfAbsent(flightKey, created);
+            if (flight == null) {
+                flight = created;
+                counter(name, "miss").increment();
+            } else {
+                counter(name, "hit").increment();
+                flight.priority.join(priority);
+            }
+            flight.callers.incrementAndGet();
+            return (Mono<T>) flight.result;
+        });
+    }
+
+    private Counter counter(String name, String result) {
+        return Counter.builder("gateway.coalescer.requests")
+            .description("Lookups that started a downstream call (miss) or joined one in flight (hit)")
+            .tags("lookup", name, "result", result)
+            .register(meterRegistry);
+    }
+
+    private DistributionSummary callersPerFlight(String name) {
+        return DistributionSummary.builder("gateway.coalescer.coalesced")
+            .description("Callers served by a single downstream call")
+            .tag("lookup", name)
+            .register(meterRegistry);
+    }
+
+    private static final class Flight<T> {
+
+        private final AtomicInteger callers = new AtomicInteger();
+
+        private final SharedPriority priority;
+
+        private Mono<T> result;
+
+        private Flight(RequestPriority priority) {
+            this.priority = new SharedPriority(priority);
+        }
+    }
+}
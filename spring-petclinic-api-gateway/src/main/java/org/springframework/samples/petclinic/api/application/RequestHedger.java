@@ -0,0 +1,166 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.samples.petclinic.api.loadbalancer.LoadBalancerHints;
+import org.springframework.samples.petclinic.api.system.HedgingProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hedges idempotent reads: when the primary call is still outstanding after the service's recent
+ * tail latency, the same request is sent once more to a different instance. The first response
+ * wins and the other call is cancelled. Hedges are drawn from a budget earned by regular traffic,
+ * so an overloaded service does not see its load multiplied.
+ * <p>
+ * Callers pass a function that builds the request with the given attributes, which carry the
+ * {@link LoadBalancerHints} steering the hedge away from the primary's instance.
+ */
+@Component
+public class RequestHedger {
+
+    private static final long BUDGET_UNIT = 1000;
+
+    private final HedgingProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ServiceLatency> latencies = new ConcurrentHashMap<>();
+
+    private final AtomicLong budget = new AtomicLong();
+
+    private final long depositPerCall;
+
+    public RequestHedger(HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.depositPerCall = Math.round(properties.getBudgetPercent() / 100 * BUDGET_UNIT);
+        Gauge.builder("gateway.hedge.budget", budget, b -> (double) b.get() / BUDGET_UNIT)
+            .description("Hedges that may currently be sent")
+            .register(meterRegistry);
+    }
+
+    public <T> Mono<T> hedge(String serviceId, Function<Consumer<Map<String, Object>>, Mono<T>> request) {
+        if (!properties.isEnabled()) {
+            return request.apply(attributes -> { });
+        }
+        return Mono.defer(() -> {
+            ServiceLatency latency = latencies.computeIfAbsent(serviceId, ServiceLatency::new);
+            deposit();
+            AtomicReference<String> primaryInstance = new AtomicReference<>();
+            Mono<T> primary = Mono.defer(() -> {
+                long start = System.nanoTime();
+                return request.apply(attributes -> attributes.put(LoadBalancerHints.CHOSEN_INSTANCE, primaryInstance))
+                    .doFinally(signal -> {
+                        if (signal != SignalType.ON_ERROR) {
+                            // A cancelled primary lost to its hedge; its elapsed time is still a lower bound
+                            latency.record(System.nanoTime() - start);
+                        }
+                    });
+            });
+            Mono<T> hedge = Mono.delay(latency.delay())
+                .then(Mono.defer(() -> {
+                    if (!withdraw()) {
+                        latency.exhausted.increment();
+                        return Mono.<T>never();
+                    }
+                    latency.sent.increment();
+                    return request.apply(attributes -> attributes.put(LoadBalancerHints.AVOID_INSTANCE, primaryInstance))
+                        .doOnNext(value -> latency.won.increment())
+                        // The primary's outcome decides the call; a failed hedge just steps aside
+                        .onErrorResume(e -> Mono.never());
+                }));
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    private void deposit() {
+        long max = properties.getMaxBudget() * BUDGET_UNIT;
+        budget.updateAndGet(balance -> Math.min(max, balance + depositPerCall));
+    }
+
+    private boolean withdraw() {
+        long balance;
+        do {
+            balance = budget.get();
+            if (balance < BUDGET_UNIT) {
+                return false;
+            }
+        } while (!budget.compareAndSet(balance, balance - BUDGET_UNIT));
+        return true;
+    }
+
+    private final class ServiceLatency {
+
+        private final Recorder recorder = new Recorder(2);
+
+        private final Counter sent;
+
+        private final Counter won;
+
+        private final Counter exhausted;
+
+        private volatile long delayMicros = properties.getMaxDelay().toNanos() / 1000;
+
+        private volatile long rolledAt = System.nanoTime();
+
+        ServiceLatency(String serviceId) {
+            sent = hedges(serviceId, "sent");
+            won = hedges(serviceId, "won");
+            exhausted = hedges(serviceId, "budget-exhausted");
+            Gauge.builder("gateway.hedge.delay", this, l -> l.delayMicros / 1000.0)
+                .description("Time after which a hedge is sent")
+                .tag("service", serviceId)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        }
+
+        private Counter hedges(String serviceId, String outcome) {
+            return Counter.builder("gateway.hedge.requests")
+                .description("Hedged requests by outcome")
+                .tags("service", serviceId, "outcome", outcome)
+                .register(meterRegistry);
+        }
+
+        void record(long nanos) {
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+
+        Duration delay() {
+            long now = System.nanoTime();
+            if (now - rolledAt >= properties.getWindow().toNanos()) {
+                roll(now);
+            }
+            return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(delayMicros));
+        }
+
+        private synchronized void roll(long now) {
+            if (now - rolledAt < properties.getWindow().toNanos()) {
+                return;
+            }
+            rolledAt = now;
+            Histogram window = recorder.getIntervalHistogram();
+            if (window.getTotalCount() >= properties.getMinSamples()) {
+                long tail = window.getValueAtPercentile(properties.getPercentile() * 100);
+                long min = properties.getMinDelay().toNanos() / 1000;
+                long max = properties.getMaxDelay().toNanos() / 1000;
+                delayMicros = Math.max(min, Math.min(max, tail));
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collection;
+
+/**
+ * Priority class of a gateway request, in priority order. It is kept as an exchange attribute and
+ * in the Reactor context under its own class; calls made outside a gateway request are interactive.
+ */
+public enum RequestPriority {
+
+    INTERACTIVE,
+
+    SYNTHETIC;
+
+    public static final String HEADER = "X-Request-Priority";
+
+    public static final String ATTRIBUTE = RequestPriority.class.getName();
+
+    /**
+     * Requests marked {@code synthetic} (or {@code low}) in {@link #HEADER}, and those sent by a client
+     * whose User-Agent starts with one of {@code syntheticUserAgents}, are synthetic. The header can
+     * only lower a request's priority.
+     */
+    public static RequestPriority classify(HttpHeaders headers, Collection<String> syntheticUserAgents) {
+        String marked = headers.getFirst(HEADER);
+        if ("low".equalsIgnoreCase(marked) || SYNTHETIC.name().equalsIgnoreCase(marked)) {
+            return SYNTHETIC;
+        }
+        String userAgent = headers.getFirst(HttpHeaders.USER_AGENT);
+        if (userAgent != null && syntheticUserAgents.stream().anyMatch(userAgent::startsWith)) {
+            return SYNTHETIC;
+        }
+        return INTERACTIVE;
+    }
+}
@@ -0,0 +1,74 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puts every downstream call behind a circuit breaker and a semaphore bulkhead named after the
+ * service. Both are created once per service; breakers take their configuration from the
+ * {@code defaultCustomizer} and bulkheads from the {@code resilience4j.bulkhead} settings. 5xx
+ * responses count as failures for the breaker and fail the call with a
+ * {@link org.springframework.web.reactive.function.client.WebClientResponseException}.
+ */
+@Component
+@Order(100)
+public class ResilienceFilterFactory implements ClientFilterFactory {
+
+    private final ReactiveCircuitBreakerFactory<?, ?> cbFactory;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final MeterRegistry meterRegistry;
+
+    public ResilienceFilterFactory(ReactiveCircuitBreakerFactory<?, ?> cbFactory, BulkheadRegistry bulkheadRegistry,
+                                   MeterRegistry meterRegistry) {
+        this.cbFactory = cbFactory;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ExchangeFilterFunction create(String serviceId) {
+        ReactiveCircuitBreaker circuitBreaker = cbFactory.create(serviceId);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(serviceId);
+        Counter bulkheadRejections = rejections(serviceId, "bulkhead");
+        Counter circuitBreakerRejections = rejections(serviceId, "circuit-breaker");
+
+        // Without a fallback every error would be wrapped in a NoFallbackAvailableException
+        return (request, next) -> circuitBreaker.run(
+                next.exchange(request)
+                    .flatMap(ResilienceFilterFactory::failOnServerError)
+                    .transformDeferred(BulkheadOperator.of(bulkhead)),
+                Mono::error)
+            .doOnError(BulkheadFullException.class, ex -> bulkheadRejections.increment())
+            .doOnError(CallNotPermittedException.class, ex -> circuitBreakerRejections.increment());
+    }
+
+    private static Mono<ClientResponse> failOnServerError(ClientResponse response) {
+        if (response.rawStatusCode() >= 500) {
+            return response.createException().flatMap(Mono::error);
+        }
+        return Mono.just(response);
+    }
+
+    private Counter rejections(String serviceId, String reason) {
+        return Counter.builder("gateway.client.rejected")
+            .description("Downstream calls rejected without being sent")
+            .tags("service", serviceId, "reason", reason)
+            .register(meterRegistry);
+    }
+}
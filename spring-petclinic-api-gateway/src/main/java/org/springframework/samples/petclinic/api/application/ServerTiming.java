@@ -0,0 +1,67 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durations of the downstream calls made while serving one gateway request, rendered as a
+ * {@code Server-Timing} header. One instance lives in the Reactor context of a sampled exchange
+ * under its own class; calls made outside such an exchange are not recorded.
+ */
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final int MAX_ENTRIES = 32;
+
+    private final Queue<String> entries = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Times {@code call} from subscription to its first signal and records it in the current
+     * exchange's collector, if there is one.
+     */
+    public static <T> Mono<T> time(String name, String description, Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            ServerTiming timing = context.getOrDefault(ServerTiming.class, null);
+            if (timing == null) {
+                return call;
+            }
+            long start = System.nanoTime();
+            Runnable record = () -> timing.record(name, description, System.nanoTime() - start);
+            // Not doFinally: it runs after the value has moved on, possibly past the response commit
+            return call
+                .doOnSuccess(value -> record.run())
+                .doOnError(ex -> record.run())
+                .doOnCancel(record);
+        });
+    }
+
+    public void record(String name, String description, long nanos) {
+        if (size.incrementAndGet() > MAX_ENTRIES) {
+            return;
+        }
+        entries.add(String.format(Locale.ROOT, "%s;desc=\"%s\";dur=%.1f",
+            name, description.replace("\\", "\\\\").replace("\"", "\\\""), nanos / 1_000_000.0));
+    }
+
+    /**
+     * The header value, or {@code null} when no call was recorded.
+     */
+    public String header() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        StringJoiner header = new StringJoiner(", ");
+        entries.forEach(header::add);
+        return header.toString();
+    }
+}
@@ -0,0 +1,22 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+/**
+ * Adds every downstream call, up to its response headers, to the {@link ServerTiming} of the
+ * gateway request it is made for.
+ */
+@Component
+@Order(1)
+public class ServerTimingFilterFactory implements ClientFilterFactory {
+
+    @Override
+    public ExchangeFilterFunction create(String serviceId) {
+        return (request, next) -> ServerTiming.time(serviceId,
+            request.method().name() + " " + ClientMetricsFilterFactory.uriTemplate(request), next.exchange(request));
+    }
+}
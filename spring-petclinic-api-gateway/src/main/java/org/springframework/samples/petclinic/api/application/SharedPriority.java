@@ -0,0 +1,48 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Priority of a downstream call that several gateway requests wait for, such as a coalesced
+ * lookup: the highest {@link RequestPriority} among them. It is kept in the Reactor context under
+ * its own class, where the {@link PriorityLaneFilterFactory} reads it instead of the priority of
+ * the request that started the call, and moves a call still queued to the higher lane when a
+ * higher-priority request joins.
+ */
+final class SharedPriority {
+
+    private final Sinks.One<RequestPriority> raised = Sinks.one();
+
+    private RequestPriority priority;
+
+    SharedPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+
+    synchronized RequestPriority get() {
+        return priority;
+    }
+
+    /**
+     * Adds a request waiting for the call, raising the call's priority to the request's.
+     */
+    void join(RequestPriority joining) {
+        synchronized (this) {
+            if (joining.compareTo(priority) >= 0) {
+                return;
+            }
+            priority = joining;
+        }
+        raised.tryEmitValue(joining);
+    }
+
+    /**
+     * Emits the priority the call is first raised to.
+     */
+    Mono<RequestPriority> raised() {
+        return raised.asMono();
+    }
+}
@@ -0,0 +1,91 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.resolver.AddressResolverGroup;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.TransportConfig;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records how long requests wait to acquire a pooled connection. Reactor Netty only exposes
+ * pool sizes, and acquire time is what tells us a pool is too small.
+ */
+class TimedConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+
+    private final Timer acquireSuccess;
+
+    private final Timer acquireFailure;
+
+    TimedConnectionProvider(ConnectionProvider delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.acquireSuccess = acquireTimer(delegate.name(), "success", meterRegistry);
+        this.acquireFailure = acquireTimer(delegate.name(), "failure", meterRegistry);
+    }
+
+    private static Timer acquireTimer(String service, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("gateway.client.pool.acquire")
+            .description("Time spent waiting for a pooled connection")
+            .tags("service", service, "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<? extends Connection> acquire(TransportConfig config, ConnectionObserver observer,
+                                              Supplier<? extends SocketAddress> remoteAddress,
+                                              AddressResolverGroup<?> resolverGroup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return delegate.acquire(config, observer, remoteAddress, resolverGroup)
+                .doOnSuccess(connection -> acquireSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .doOnError(ex -> acquireFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public void disposeWhen(SocketAddress address) {
+        delegate.disposeWhen(address);
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+
+    @Override
+    public Mono<Void> disposeLater() {
+        return delegate.disposeLater();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+
+    @Override
+    public int maxConnections() {
+        return delegate.maxConnections();
+    }
+
+    @Override
+    public Map<SocketAddress, Integer> maxConnectionsPerHost() {
+        return delegate.maxConnectionsPerHost();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+}
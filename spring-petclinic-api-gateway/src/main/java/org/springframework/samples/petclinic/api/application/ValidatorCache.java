@@ -0,0 +1,130 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.api.system.ValidatorCacheProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the ETag and Last-Modified of list responses together with the decoded body, and sends
+ * them back as {@code If-None-Match} and {@code If-Modified-Since}. On 304 the cached body is
+ * returned, so an unchanged list costs a header exchange instead of a transfer and a parse.
+ * The returned entity carries the validators, for passing on to clients.
+ */
+@Component
+public class ValidatorCache {
+
+    private final ValidatorCacheProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Entry> entries;
+
+    public ValidatorCache(ValidatorCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+    }
+
+    /**
+     * @param name low-cardinality lookup name, used as the metrics tag
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<ResponseEntity<T>> get(WebClient webClient, String name, String uri, ParameterizedTypeReference<T> type) {
+        return Mono.defer(() -> {
+            Entry cached = properties.isEnabled() ? lookup(uri) : null;
+            return webClient.get()
+                .uri(uri)
+                .headers(headers -> {
+                    if (cached != null && cached.validators.getETag() != null) {
+                        headers.setIfNoneMatch(cached.validators.getETag());
+                    }
+                    if (cached != null && cached.validators.getLastModified() >= 0) {
+                        headers.setIfModifiedSince(cached.validators.getLastModified());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                        count(name, "not-modified");
+                        return response.releaseBody()
+                            .thenReturn(new ResponseEntity<>((T) cached.body, cached.validators, HttpStatus.OK));
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    HttpHeaders validators = validators(response.headers().asHttpHeaders());
+                    return response.bodyToMono(type).map(body -> {
+                        if (validators.isEmpty()) {
+                            count(name, "no-validator");
+                        } else {
+                            count(name, "modified");
+                            store(uri, new Entry(body, validators));
+                        }
+                        return new ResponseEntity<>(body, validators, HttpStatus.OK);
+                    });
+                });
+        });
+    }
+
+    private static HttpHeaders validators(HttpHeaders headers) {
+        HttpHeaders validators = new HttpHeaders();
+        if (headers.getETag() != null) {
+            validators.setETag(headers.getETag());
+        }
+        if (headers.getLastModified() >= 0) {
+            validators.setLastModified(headers.getLastModified());
+        }
+        return HttpHeaders.readOnlyHttpHeaders(validators);
+    }
+
+    private Entry lookup(String uri) {
+        synchronized (entries) {
+            return entries.get(uri);
+        }
+    }
+
+    private void store(String uri, Entry entry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(uri, entry);
+        }
+    }
+
+    private void count(String name, String result) {
+        Counter.builder("gateway.validator-cache.requests")
+            .description("List requests answered 304 from the cache (not-modified) or with a new body")
+            .tags("name", name, "result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static final class Entry {
+
+        private final Object body;
+
+        private final HttpHeaders validators;
+
+        private Entry(Object body, HttpHeaders validators) {
+            this.body = body;
+            this.validators = validators;
+        }
+    }
+}
@@ -4,7 +4,6 @@ package org.springframework.samples.petclinic.api.application;
 
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
-import lombok.RequiredArgsConstructor;
 import org.springframework.samples.petclinic.api.dto.VetDetails;
 import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
 import org.springframework.stereotype.Component;
@@ -12,16 +11,25 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 
 @Component
-@RequiredArgsConstructor
 public class VetsServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+
+    private final RequestHedger hedger;
+
+    public VetsServiceClient(WebClientRegistry webClients, RequestHedger hedger) {
+        this.webClient = webClients.get("vets-service");
+        this.hedger = hedger;
+    }
 
     @WithSpan
     public Flux<VetDetails> getVets() {
-        return webClientBuilder.build().get()
-            .uri("lb://vets-service/vets")
-            .retrieve()
-            .bodyToFlux(VetDetails.class);
+        return hedger.hedge("vets-service", attributes -> webClient.get()
+                .uri("lb://vets-service/vets")
+                .attributes(attributes)
+                .retrieve()
+                .bodyToFlux(VetDetails.class)
+                .collectList())
+            .flatMapIterable(vets -> vets);
     }
 }
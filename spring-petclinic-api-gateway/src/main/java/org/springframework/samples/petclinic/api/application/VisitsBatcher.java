@@ -0,0 +1,216 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.VisitsBatchProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Collects visit lookups from concurrent requests and resolves them with one
+ * {@code pets/visits?petId=} call. Each caller gets back only the visits of its own pets. The call
+ * runs in the lane of the highest {@link RequestPriority} in the batch, under the latest
+ * {@link RequestDeadline} among its callers, and is cancelled once every caller has cancelled.
+ */
+@Component
+public class VisitsBatcher {
+
+    private final VisitsServiceClient visitsServiceClient;
+
+    private final VisitsBatchProperties properties;
+
+    private final DistributionSummary batchRequests;
+
+    private final DistributionSummary batchIds;
+
+    private final Object lock = new Object();
+
+    private List<PendingLookup> pending = new ArrayList<>();
+
+    private Set<Integer> pendingIds = new LinkedHashSet<>();
+
+    private Disposable scheduledFlush;
+
+    public VisitsBatcher(VisitsServiceClient visitsServiceClient, VisitsBatchProperties properties, MeterRegistry meterRegistry) {
+        this.visitsServiceClient = visitsServiceClient;
+        this.properties = properties;
+        this.batchRequests = DistributionSummary.builder("gateway.visits.batch.requests")
+            .description("Caller lookups merged into one visits-service call")
+            .register(meterRegistry);
+        this.batchIds = DistributionSummary.builder("gateway.visits.batch.ids")
+            .description("Distinct pet ids sent in one visits-service call")
+            .register(meterRegistry);
+    }
+
+    public Mono<Visits> getVisitsForPets(final List<Integer> petIds) {
+        if (!properties.isEnabled() || petIds.isEmpty()) {
+            return visitsServiceClient.getVisitsForPets(petIds);
+        }
+        // The batched call runs outside any request's context, so each caller times its own wait
+        return ServerTiming.time("visits-service", "GET /pets/visits (batched)", Mono.deferContextual(context -> {
+            PendingLookup lookup = new PendingLookup(new HashSet<>(petIds),
+                context.getOrDefault(RequestPriority.class, RequestPriority.INTERACTIVE),
+                context.getOrDefault(RequestDeadline.class, null));
+            enqueue(lookup);
+            return lookup.result.asMono().doOnCancel(() -> cancel(lookup));
+        }));
+    }
+
+    private void enqueue(PendingLookup lookup) {
+        List<PendingLookup> batch = null;
+        synchronized (lock) {
+            pending.add(lookup);
+            pendingIds.addAll(lookup.petIds);
+            if (pendingIds.size() >= properties.getMaxIds()) {
+                batch = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = Schedulers.parallel()
+                    .schedule(this::flush, properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    private void flush() {
+        List<PendingLookup> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        send(batch);
+    }
+
+    private List<PendingLookup> drain() {
+        List<PendingLookup> batch = pending;
+        pending = new ArrayList<>();
+        pendingIds = new LinkedHashSet<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void cancel(PendingLookup lookup) {
+        Batch batch;
+        synchronized (lock) {
+            lookup.cancelled = true;
+            batch = lookup.batch;
+            if (batch == null || --batch.waiting > 0) {
+                return;
+            }
+        }
+        batch.call.dispose();
+    }
+
+    private void send(List<PendingLookup> drained) {
+        List<PendingLookup> batch;
+        Batch sent;
+        synchronized (lock) {
+            // Lookups cancelled while the batch was filling up are left out
+            batch = drained.stream().filter(lookup -> !lookup.cancelled).collect(Collectors.toList());
+            if (batch.isEmpty()) {
+                return;
+            }
+            sent = new Batch(batch.size());
+            batch.forEach(lookup -> lookup.batch = sent);
+        }
+        List<Integer> ids = batch.stream()
+            .flatMap(lookup -> lookup.petIds.stream())
+            .distinct()
+            .collect(Collectors.toList());
+        RequestPriority priority = batch.stream()
+            .map(lookup -> lookup.priority)
+            .min(Comparator.naturalOrder())
+            .orElse(RequestPriority.INTERACTIVE);
+        RequestDeadline deadline = latestDeadline(batch);
+        batchRequests.record(batch.size());
+        batchIds.record(ids.size());
+
+        sent.call.update(visitsServiceClient.getVisitsForPets(ids)
+            .contextWrite(context -> {
+                Context prioritised = context.put(RequestPriority.class, priority);
+                return deadline == null ? prioritised : prioritised.put(RequestDeadline.class, deadline);
+            })
+            .subscribe(
+            visits -> batch.forEach(lookup -> lookup.result.tryEmitValue(visitsFor(lookup.petIds, visits))),
+            ex -> batch.forEach(lookup -> lookup.result.tryEmitError(ex)),
+            () -> batch.forEach(lookup -> lookup.result.tryEmitValue(new Visits()))));
+    }
+
+    /**
+     * The deadline of the caller willing to wait longest, or null when one of them has none.
+     */
+    private static RequestDeadline latestDeadline(List<PendingLookup> batch) {
+        RequestDeadline latest = null;
+        for (PendingLookup lookup : batch) {
+            if (lookup.deadline == null) {
+                return null;
+            }
+            if (latest == null || lookup.deadline.remainingMillis() > latest.remainingMillis()) {
+                latest = lookup.deadline;
+            }
+        }
+        return latest;
+    }
+
+    private static Visits visitsFor(Set<Integer> petIds, Visits visits) {
+        Visits split = new Visits();
+        visits.getItems().stream()
+            .filter(visit -> petIds.contains(visit.getPetId()))
+            .forEach(split.getItems()::add);
+        return split;
+    }
+
+    private static final class PendingLookup {
+
+        private final Set<Integer> petIds;
+
+        private final RequestPriority priority;
+
+        private final RequestDeadline deadline;
+
+        private final Sinks.One<Visits> result = Sinks.one();
+
+        // Guarded by the batcher's lock
+        private boolean cancelled;
+
+        private Batch batch;
+
+        private PendingLookup(Set<Integer> petIds, RequestPriority priority, RequestDeadline deadline) {
+            this.petIds = petIds;
+            this.priority = priority;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Batch {
+
+        private final Disposable.Swap call = Disposables.swap();
+
+        // Lookups still waiting for the call, guarded by the batcher's lock
+        private int waiting;
+
+        private Batch(int waiting) {
+            this.waiting = waiting;
+        }
+    }
+}
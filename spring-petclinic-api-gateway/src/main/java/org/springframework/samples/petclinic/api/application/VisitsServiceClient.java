@@ -22,7 +22,6 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.samples.petclinic.api.dto.VisitDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
@@ -41,24 +40,31 @@ import static java.util.stream.Collectors.joining;
  * @author Maciej Szarlinski
  */
 @Component
-@RequiredArgsConstructor
 public class VisitsServiceClient {
 
     // Could be changed for testing purpose
     private String hostname = "http://visits-service/";
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient;
+
+    private final RequestHedger hedger;
+
+    public VisitsServiceClient(WebClientRegistry webClients, RequestHedger hedger) {
+        this.webClient = webClients.get("visits-service");
+        this.hedger = hedger;
+    }
 
     @WithSpan
     public Mono<Visits> getVisitsForPets(final List<Integer> petIds) {
         // Span.current().setAttribute(WellKnownAttributes.REMOTE_APPLICATION, "visits-service");
         // Span.current().setAttribute(WellKnownAttributes.REMOTE_OPERATION, "/pets/visits");
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return hedger.hedge("visits-service", attributes -> webClient
             .get()
             .uri(hostname + "pets/visits?petId={petId}", joinIds(petIds))
+            .attributes(attributes)
             .retrieve()
-            .bodyToMono(Visits.class);
+            .bodyToMono(Visits.class));
 
     }
 
@@ -67,11 +73,12 @@ public class VisitsServiceClient {
         // Span.current().setAttribute(WellKnownAttributes.REMOTE_APPLICATION, "visits-service");
         // Span.current().setAttribute(WellKnownAttributes.REMOTE_OPERATION, "/owners/*/pets/{petId}/visits");
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return hedger.hedge("visits-service", attributes -> webClient
             .get()
             .uri(hostname + "owners/{ownerId}/pets/{petId}/visits", ownerId, petId)
+            .attributes(attributes)
             .retrieve()
-            .bodyToMono(Visits.class);
+            .bodyToMono(Visits.class));
 
     }
 
@@ -80,7 +87,7 @@ public class VisitsServiceClient {
         // Span.current().setAttribute(WellKnownAttributes.REMOTE_APPLICATION, "visits-service");
         // Span.current().setAttribute(WellKnownAttributes.REMOTE_OPERATION, "/owners/*/pets/{petId}/visits");
         Span.current().setAttribute("aws.local.service", "pet-clinic-frontend-java");
-        return webClientBuilder.build()
+        return webClient
             .post()
             .uri(hostname + "owners/{ownerId}/pets/{petId}/visits", ownerId, petId)
             .body(Mono.just(visitDetails), VisitDetails.class)
@@ -0,0 +1,99 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.samples.petclinic.api.system.ClientPoolProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Long-lived {@link WebClient}s, one per downstream service. Every client is cloned from the
+ * load-balanced builder and owns a dedicated connection pool sized by {@link ClientPoolProperties},
+ * so a slow service can only exhaust its own connections. {@link ClientFilterFactory} beans add
+ * per-service filters on top of the load-balancing one.
+ */
+@Component
+public class WebClientRegistry implements DisposableBean {
+
+    private final WebClient.Builder webClientBuilder;
+
+    private final ClientPoolProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final List<ClientFilterFactory> filterFactories;
+
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public WebClientRegistry(WebClient.Builder webClientBuilder, ClientPoolProperties properties, MeterRegistry meterRegistry,
+                             List<ClientFilterFactory> filterFactories) {
+        this.webClientBuilder = webClientBuilder;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.filterFactories = filterFactories;
+    }
+
+    public WebClient get(String serviceId) {
+        return clients.computeIfAbsent(serviceId, this::create);
+    }
+
+    private WebClient create(String serviceId) {
+        ClientPoolProperties.Pool pool = properties.poolFor(serviceId);
+        ConnectionProvider provider = new TimedConnectionProvider(ConnectionProvider.builder(serviceId)
+            .maxConnections(pool.getMaxConnections())
+            .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .evictInBackground(pool.getEvictionInterval())
+            .metrics(true, () -> this::registerPoolGauges)
+            .build(), meterRegistry);
+        providers.put(serviceId, provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+            .responseTimeout(pool.getResponseTimeout());
+        WebClient.Builder builder = webClientBuilder.clone()
+            .clientConnector(new ReactorClientHttpConnector(httpClient));
+        filterFactories.forEach(factory -> builder.filter(factory.create(serviceId)));
+        return builder.build();
+    }
+
+    private void registerPoolGauges(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        Tags tags = Tags.of("service", poolName, "remote.address", remoteAddress.toString());
+        gauge("gateway.client.pool.active", "Connections currently acquired", tags, metrics, ConnectionPoolMetrics::acquiredSize);
+        gauge("gateway.client.pool.total", "Connections allocated, active or idle", tags, metrics, ConnectionPoolMetrics::allocatedSize);
+        gauge("gateway.client.pool.idle", "Connections idle in the pool", tags, metrics, ConnectionPoolMetrics::idleSize);
+        gauge("gateway.client.pool.pending", "Requests waiting for a connection", tags, metrics, ConnectionPoolMetrics::pendingAcquireSize);
+        gauge("gateway.client.pool.max", "Maximum connections allowed", tags, metrics, ConnectionPoolMetrics::maxAllocatedSize);
+    }
+
+    private void gauge(String name, String description, Tags tags, ConnectionPoolMetrics metrics,
+                       ToDoubleFunction<ConnectionPoolMetrics> value) {
+        Gauge.builder(name, metrics, value)
+            .description(description)
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,194 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.assets;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step, run by the exec-maven-plugin once resources and the wro4j CSS are in place.
+ * Copies every static asset to a name carrying its content hash ({@code app.js} becomes
+ * {@code app-<md5>.js}), points the {@code url(...)} references in CSS at the fingerprinted
+ * names, writes {@code .gz} and {@code .br} next to compressible files and records the
+ * mapping in {@link AssetManifest#LOCATION}.
+ * <p>
+ * HTML is left alone: index.html is rewritten at startup from the manifest and the AngularJS
+ * templates are loaded by relative path from the scripts.
+ */
+public final class AssetFingerprinter {
+
+    private static final Set<String> COMPRESSIBLE = new HashSet<>(Arrays.asList("js", "css", "svg", "eot", "ttf", "json"));
+
+    private static final Pattern CSS_URL = Pattern.compile("url\\((['\"]?)([^'\")]+)\\1\\)");
+
+    private final Path root;
+
+    private final boolean brotli;
+
+    private final Map<String, String> manifest = new TreeMap<>();
+
+    AssetFingerprinter(Path root, boolean brotli) {
+        this.root = root;
+        this.brotli = brotli;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(args.length > 0 ? args[0] : "target/classes/static");
+        boolean brotli;
+        try {
+            Brotli4jLoader.ensureAvailability();
+            brotli = true;
+        } catch (Throwable ex) {
+            System.out.println("Brotli unavailable, writing .gz variants only: " + ex);
+            brotli = false;
+        }
+        Map<String, String> manifest = new AssetFingerprinter(root, brotli).run();
+        System.out.println("Fingerprinted " + manifest.size() + " static assets in " + root);
+    }
+
+    Map<String, String> run() throws IOException {
+        removePreviousOutput();
+        List<Path> assets;
+        try (Stream<Path> files = Files.walk(root)) {
+            assets = files.filter(Files::isRegularFile)
+                .filter(file -> !isHtml(file) && !file.getFileName().toString().equals(AssetManifest.FILE_NAME))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        // CSS last, so that the fonts and images it references already have their names
+        List<Path> stylesheets = new ArrayList<>();
+        for (Path asset : assets) {
+            if ("css".equals(extension(asset))) {
+                stylesheets.add(asset);
+            } else {
+                fingerprint(asset, Files.readAllBytes(asset));
+            }
+        }
+        for (Path stylesheet : stylesheets) {
+            String css = new String(Files.readAllBytes(stylesheet), StandardCharsets.UTF_8);
+            fingerprint(stylesheet, rewriteCss(stylesheet, css).getBytes(StandardCharsets.UTF_8));
+        }
+        writeManifest();
+        return manifest;
+    }
+
+    private void fingerprint(Path asset, byte[] content) throws IOException {
+        String fileName = asset.getFileName().toString();
+        String extension = extension(asset);
+        String hash = DigestUtils.md5DigestAsHex(content);
+        String fingerprinted = extension.isEmpty() ? fileName + "-" + hash
+            : StringUtils.stripFilenameExtension(fileName) + "-" + hash + "." + extension;
+        Path target = asset.resolveSibling(fingerprinted);
+        Files.write(target, content);
+        manifest.put(urlPath(asset), urlPath(target));
+
+        if (COMPRESSIBLE.contains(extension)) {
+            byte[] gzip = gzip(content);
+            if (gzip.length < content.length) {
+                Files.write(target.resolveSibling(fingerprinted + ".gz"), gzip);
+            }
+            if (brotli) {
+                byte[] br = Encoder.compress(content, new Encoder.Parameters().setQuality(11));
+                if (br.length < content.length) {
+                    Files.write(target.resolveSibling(fingerprinted + ".br"), br);
+                }
+            }
+        }
+    }
+
+    private String rewriteCss(Path stylesheet, String css) {
+        Matcher matcher = CSS_URL.matcher(css);
+        StringBuffer rewritten = new StringBuffer();
+        while (matcher.find()) {
+            String reference = matcher.group(2);
+            int suffixStart = indexOfAny(reference, '?', '#');
+            String path = suffixStart < 0 ? reference : reference.substring(0, suffixStart);
+            String suffix = suffixStart < 0 ? "" : reference.substring(suffixStart);
+            String replacement = matcher.group();
+            if (!path.isEmpty() && !path.contains(":") && !path.startsWith("/")) {
+                Path target = stylesheet.getParent().resolve(path).normalize();
+                String fingerprinted = target.startsWith(root) ? manifest.get(urlPath(target)) : null;
+                if (fingerprinted != null) {
+                    String relative = stylesheet.getParent().relativize(root.resolve(fingerprinted.substring(1))).toString()
+                        .replace('\\', '/');
+                    replacement = "url(" + matcher.group(1) + relative + suffix + matcher.group(1) + ")";
+                }
+            }
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(rewritten);
+        return rewritten.toString();
+    }
+
+    private void removePreviousOutput() throws IOException {
+        Path previous = root.resolve(AssetManifest.FILE_NAME);
+        if (!Files.exists(previous)) {
+            return;
+        }
+        for (String fingerprinted : AssetManifest.load(previous.toUri().toURL()).values()) {
+            Path file = root.resolve(fingerprinted.substring(1));
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".gz"));
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".br"));
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(root.resolve(AssetManifest.FILE_NAME), StandardCharsets.UTF_8)) {
+            writer.write("# Generated by " + getClass().getSimpleName() + ", do not edit\n");
+            for (Map.Entry<String, String> entry : manifest.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    private String urlPath(Path file) {
+        return "/" + root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static boolean isHtml(Path file) {
+        String extension = extension(file);
+        return "html".equals(extension) || "htm".equals(extension);
+    }
+
+    private static String extension(Path file) {
+        String extension = StringUtils.getFilenameExtension(file.getFileName().toString());
+        return extension == null ? "" : extension.toLowerCase();
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        int a = value.indexOf(first);
+        int b = value.indexOf(second);
+        return a < 0 ? b : b < 0 ? a : Math.min(a, b);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
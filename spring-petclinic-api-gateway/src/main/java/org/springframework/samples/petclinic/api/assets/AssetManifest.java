@@ -0,0 +1,84 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.assets;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Maps static asset paths to their fingerprinted names, as written by {@link AssetFingerprinter}
+ * at build time. Without a manifest (e.g. running from the IDE without a Maven build) the map is
+ * empty and assets are served under their plain names.
+ */
+@Slf4j
+@Component
+public class AssetManifest {
+
+    static final String FILE_NAME = "asset-manifest.properties";
+
+    public static final String LOCATION = "classpath:/static/" + FILE_NAME;
+
+    private final Map<String, String> fingerprinted;
+
+    private final Set<String> immutable;
+
+    @Autowired
+    public AssetManifest(@Value(LOCATION) Resource manifest) throws IOException {
+        this(manifest.exists() ? load(manifest.getURL()) : Collections.emptyMap());
+        if (fingerprinted.isEmpty()) {
+            log.info("No static asset manifest at {}, serving assets without fingerprints", LOCATION);
+        }
+    }
+
+    public AssetManifest(Map<String, String> fingerprinted) {
+        this.fingerprinted = Collections.unmodifiableMap(new LinkedHashMap<>(fingerprinted));
+        this.immutable = Collections.unmodifiableSet(new HashSet<>(fingerprinted.values()));
+    }
+
+    /**
+     * @return the fingerprinted path for {@code path}, or {@code path} itself if it has none
+     */
+    public String resolve(String path) {
+        return fingerprinted.getOrDefault(path, path);
+    }
+
+    /**
+     * @return whether {@code path} names a fingerprinted asset, whose content never changes
+     */
+    public boolean isFingerprinted(String path) {
+        return immutable.contains(path);
+    }
+
+    /**
+     * Points the {@code src} and {@code href} attributes of an HTML page at the fingerprinted assets.
+     */
+    public String rewrite(String html) {
+        for (Map.Entry<String, String> entry : fingerprinted.entrySet()) {
+            html = html.replace("=\"" + entry.getKey() + "\"", "=\"" + entry.getValue() + "\"");
+        }
+        return html;
+    }
+
+    static Map<String, String> load(URL manifest) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = manifest.openStream()) {
+            properties.load(in);
+        }
+        Map<String, String> fingerprinted = new LinkedHashMap<>();
+        properties.stringPropertyNames().forEach(path -> fingerprinted.put(path, properties.getProperty(path)));
+        return fingerprinted;
+    }
+}
@@ -0,0 +1,127 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.assets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.codec.ResourceHttpMessageWriter;
+import org.springframework.samples.petclinic.api.system.StaticAssetProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.samples.petclinic.api.assets.AcceptEncoding.accepts;
+
+/**
+ * Serves the fingerprinted static assets listed in the {@link AssetManifest} as immutable, with the
+ * precompressed brotli or gzip variant when the client accepts it. Files on the file system (the
+ * exploded jar layers in the Docker image, or target/classes) are sent with zero-copy file regions
+ * where Netty allows it.
+ */
+@Component
+public class FingerprintedAssetHandler implements HandlerFunction<ServerResponse> {
+
+    private static final ResolvableType RESOURCE_TYPE = ResolvableType.forClass(Resource.class);
+
+    private final AssetManifest manifest;
+
+    private final Resource location;
+
+    private final String cacheControl;
+
+    private final ResourceHttpMessageWriter writer = new ResourceHttpMessageWriter();
+
+    private final Map<String, Variants> variants = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FingerprintedAssetHandler(AssetManifest manifest, StaticAssetProperties properties) {
+        this(manifest, properties, new ClassPathResource("static/"));
+    }
+
+    FingerprintedAssetHandler(AssetManifest manifest, StaticAssetProperties properties, Resource location) {
+        this.manifest = manifest;
+        this.location = location;
+        this.cacheControl = "public, max-age=" + properties.getMaxAge().getSeconds() + ", immutable";
+    }
+
+    public RequestPredicate predicate() {
+        return RequestPredicates.method(HttpMethod.GET).or(RequestPredicates.method(HttpMethod.HEAD))
+            .and(request -> manifest.isFingerprinted(request.path()));
+    }
+
+    @Override
+    public Mono<ServerResponse> handle(ServerRequest request) {
+        Variants assets = variants.computeIfAbsent(request.path(), this::resolve);
+        if (assets.identity == null) {
+            return ServerResponse.notFound().build();
+        }
+        String acceptEncoding = request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING);
+        String encoding = null;
+        Resource resource = assets.identity;
+        if (assets.brotli != null && accepts(acceptEncoding, "br")) {
+            encoding = "br";
+            resource = assets.brotli;
+        } else if (assets.gzip != null && accepts(acceptEncoding, "gzip")) {
+            encoding = "gzip";
+            resource = assets.gzip;
+        }
+
+        ServerResponse.BodyBuilder response = ServerResponse.ok()
+            .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (assets.gzip != null || assets.brotli != null) {
+            response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (encoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        Resource body = resource;
+        // The writer takes the media type of the original file, not of the .gz/.br variant
+        return response.body((message, context) ->
+            writer.write(Mono.just(body), RESOURCE_TYPE, assets.mediaType, message, context.hints()));
+    }
+
+    private Variants resolve(String path) {
+        try {
+            Resource identity = location.createRelative(path.substring(1));
+            Resource gzip = location.createRelative(path.substring(1) + ".gz");
+            Resource brotli = location.createRelative(path.substring(1) + ".br");
+            MediaType mediaType = MediaTypeFactory.getMediaType(identity).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return new Variants(identity.exists() ? identity : null, gzip.exists() ? gzip : null, brotli.exists() ? brotli : null, mediaType);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static final class Variants {
+
+        private final Resource identity;
+
+        private final Resource gzip;
+
+        private final Resource brotli;
+
+        private final MediaType mediaType;
+
+        Variants(Resource identity, Resource gzip, Resource brotli, MediaType mediaType) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.brotli = brotli;
+            this.mediaType = mediaType;
+        }
+    }
+}
@@ -4,6 +4,10 @@ package org.springframework.samples.petclinic.api.boundary.web;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.api.application.*;
 import org.springframework.samples.petclinic.api.dto.*;
 import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,6 +27,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import io.opentelemetry.api.trace.Span;
 
+import java.util.Arrays;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @Slf4j
@@ -35,16 +43,30 @@ public class ApiController {
     private final BillingServiceClient billingServiceClient;
     private final PaymentClient paymentClient;
     private final NutritionServiceClient nutritionServiceClient;
+    private final RequestCoalescer requestCoalescer;
+    private final ReferenceDataCache referenceDataCache;
+    private final OwnerPrefetcher ownerPrefetcher;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping(value = "customer/owners")
     public Flux<OwnerDetails> getOwners() {
         return customersServiceClient.getOwners();
     }
 
+    /**
+     * Owners as NDJSON or server-sent events. The upstream array is decoded element by element and
+     * each owner is written as soon as the client asks for more, so no list is held in memory.
+     */
+    @GetMapping(value = "customer/owners", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<OwnerDetails> streamOwners() {
+        return customersServiceClient.getOwners();
+    }
+
     @GetMapping(value = "customer/owners/{ownerId}")
     public Mono<OwnerDetails> getOwner(final @PathVariable int ownerId) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
-        return customersServiceClient.getOwner(ownerId);
+        return requestCoalescer.coalesce("owner", ownerId, () -> customersServiceClient.getOwner(ownerId))
+            .doOnNext(ownerPrefetcher::prefetch);
     }
 
     @PutMapping(value = "customer/owners/{ownerId}")
@@ -54,20 +76,23 @@ public class ApiController {
     }
 
     @PostMapping(value = "customer/owners")
-    public Mono<Void> addOwner(@RequestBody OwnerRequest ownerRequest) {
-        return customersServiceClient.addOwner(ownerRequest);
+    public Mono<Void> addOwner(@RequestBody OwnerRequest ownerRequest,
+            final @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("owner", idempotencyKey, ownerRequest,
+            () -> customersServiceClient.addOwner(ownerRequest));
     }
 
-    @GetMapping(value = "customer/petTypes")
-    public Flux<PetType> getPetTypes() {
-        return customersServiceClient.getPetTypes();
+    @GetMapping(value = "customer/petTypes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<byte[]> getPetTypes() {
+        return referenceDataCache.get("petTypes", customersServiceClient::getPetTypes);
     }
 
     @GetMapping(value = "customer/owners/{ownerId}/pets/{petId}")
     public Mono<PetFull> getPetTypes(final @PathVariable int ownerId, final @PathVariable int petId) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return customersServiceClient.getPet(ownerId, petId);
+        return ownerPrefetcher.get(OwnerPrefetcher.PET, ownerId + "/" + petId, PetFull.class,
+            () -> requestCoalescer.coalesce("pet", ownerId + "/" + petId, () -> customersServiceClient.getPet(ownerId, petId)));
     }
 
     @GetMapping(value = "customer/diagnose/owners/{ownerId}/pets/{petId}")
@@ -83,67 +108,91 @@ public class ApiController {
             @RequestBody PetRequest petRequest) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return customersServiceClient.updatePet(ownerId, petId, petRequest);
+        return customersServiceClient.updatePet(ownerId, petId, petRequest)
+            .doFinally(signal -> ownerPrefetcher.invalidate(OwnerPrefetcher.PET, ownerId + "/" + petId));
     }
 
     @PostMapping("customer/owners/{ownerId}/pets")
-    public Mono<PetFull> addPet(final @PathVariable int ownerId, @RequestBody PetRequest petRequest) {
+    public Mono<PetFull> addPet(final @PathVariable int ownerId, @RequestBody PetRequest petRequest,
+            final @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
-        return customersServiceClient.addPet(ownerId, petRequest);
+        return idempotencyStore.execute("pet", idempotencyKey, Arrays.asList(ownerId, petRequest),
+            () -> customersServiceClient.addPet(ownerId, petRequest))
+            .doFinally(signal -> ownerPrefetcher.cancel(ownerId));
     }
 
-    @GetMapping(value = "vet/vets")
-    public Flux<VetDetails> getVets() {
-        return vetsServiceClient.getVets();
+    @GetMapping(value = "vet/vets", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<byte[]> getVets() {
+        return referenceDataCache.get("vets", vetsServiceClient::getVets);
     }
 
     @GetMapping(value = "visit/owners/{ownerId}/pets/{petId}/visits")
     public Mono<Visits> getVisits(final @PathVariable int ownerId, final @PathVariable int petId) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return visitsServiceClient.getVisitsForOwnersPets(ownerId, petId);
+        return ownerPrefetcher.get(OwnerPrefetcher.VISITS, ownerId + "/" + petId, Visits.class,
+            () -> requestCoalescer.coalesce("visits", ownerId + "/" + petId,
+                () -> visitsServiceClient.getVisitsForOwnersPets(ownerId, petId)));
     }
 
     @PostMapping(value = "visit/owners/{ownerId}/pets/{petId}/visits")
     public Mono<String> addVisit(final @PathVariable int ownerId, final @PathVariable int petId,
-            final @RequestBody VisitDetails visitDetails) {
+            final @RequestBody VisitDetails visitDetails,
+            final @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return visitsServiceClient.addVisitForOwnersPets(ownerId, petId, visitDetails);
+        return idempotencyStore.execute("visit", idempotencyKey, Arrays.asList(ownerId, petId, visitDetails),
+                () -> visitsServiceClient.addVisitForOwnersPets(ownerId, petId, visitDetails))
+            .doFinally(signal -> ownerPrefetcher.invalidate(OwnerPrefetcher.VISITS, ownerId + "/" + petId));
     }
 
-    @GetMapping(value = "insurance/insurances")
-    public Flux<InsuranceDetail> getInsurance() {
-        return insuranceServiceClient.getInsurances();
+    @GetMapping(value = "insurance/insurances", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getInsurance() {
+        return referenceDataCache.getJson("insurances", insuranceServiceClient::getInsurances)
+            .map(json -> ResponseEntity.ok()
+                .eTag(json.getETag())
+                .body(json.getBody()));
     }
 
+    /**
+     * Billings as a JSON array. The billing service's validators are passed on, so a browser
+     * revalidating an unchanged list gets a 304.
+     */
     @GetMapping(value = "billing/billings")
-    public Flux<BillingDetail> getBillings() {
+    public Mono<ResponseEntity<List<BillingDetail>>> getBillings() {
+        return billingServiceClient.getBillingList().map(ApiController::revalidatable);
+    }
+
+    @GetMapping(value = "billing/billings", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<BillingDetail> streamBillings() {
         return billingServiceClient.getBillings();
     }
 
     @GetMapping(value = "billing/summary")
-    public Mono<Object> getBillingSummary() {
-        return billingServiceClient.getBillingSummary();
+    public Mono<ResponseEntity<Object>> getBillingSummary() {
+        return billingServiceClient.getBillingSummary().map(ApiController::revalidatable);
     }
 
     @PostMapping(value = "insurance/pet-insurances")
     public Mono<Void> addPetInsurance(final @RequestBody PetInsurance petInsurance) {
         System.out.println(petInsurance.toString());
-        return insuranceServiceClient.addPetInsurance(petInsurance);
+        return insuranceServiceClient.addPetInsurance(petInsurance)
+            .doFinally(signal -> ownerPrefetcher.invalidate(OwnerPrefetcher.PET_INSURANCE, petInsurance.getPet_id()));
     }
 
     @PutMapping(value = "insurance/pet-insurances/{petId}")
     public Mono<PetInsurance> updatePetInsurance(final @PathVariable int petId,
             final @RequestBody PetInsurance petInsurance) {
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return insuranceServiceClient.updatePetInsurance(petId, petInsurance);
+        return insuranceServiceClient.updatePetInsurance(petId, petInsurance)
+            .doFinally(signal -> ownerPrefetcher.invalidate(OwnerPrefetcher.PET_INSURANCE, petId));
     }
 
     @GetMapping(value = "insurance/pet-insurances/{petId}")
     public Mono<PetInsurance> getPetInsurance(final @PathVariable int petId) {
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return insuranceServiceClient.getPetInsurance(petId);
+        return ownerPrefetcher.get(OwnerPrefetcher.PET_INSURANCE, petId, PetInsurance.class,
+            () -> requestCoalescer.coalesce("pet-insurance", petId, () -> insuranceServiceClient.getPetInsurance(petId)));
     }
 
     @GetMapping(value = "payments/owners/{ownerId}/pets/{petId}")
@@ -153,6 +202,14 @@ public class ApiController {
         return paymentClient.getPayments(ownerId, petId);
     }
 
+    @GetMapping(value = "payments/owners/{ownerId}/pets/{petId}",
+        produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<PaymentDetail> streamPayments(final @PathVariable int ownerId, final @PathVariable int petId) {
+        Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
+        Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
+        return paymentClient.getPayments(ownerId, petId);
+    }
+
     @GetMapping(value = "payments/owners/{ownerId}/pets/{petId}/{paymentId}")
     public Mono<PaymentDetail> getPaymentById(final @PathVariable int ownerId, final @PathVariable int petId,
             final @PathVariable String paymentId) {
@@ -163,10 +220,12 @@ public class ApiController {
 
     @PostMapping(value = "payments/owners/{ownerId}/pets/{petId}")
     public Mono<PaymentDetail> addPayment(final @PathVariable int ownerId, final @PathVariable int petId,
-            final @RequestBody PaymentAdd paymentAdd) {
+            final @RequestBody PaymentAdd paymentAdd,
+            final @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
         Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
-        return paymentClient.addPayment(ownerId, petId, paymentAdd);
+        return idempotencyStore.execute("payment", idempotencyKey, Arrays.asList(ownerId, petId, paymentAdd),
+            () -> paymentClient.addPayment(ownerId, petId, paymentAdd));
     }
 
     @DeleteMapping(value = "payments/clean-db")
@@ -174,9 +233,25 @@ public class ApiController {
         return paymentClient.cleanPaymentTable();
     }
 
+    /**
+     * Re-encoding changes the bytes but not the content, so the downstream ETag is passed on as weak.
+     */
+    private static <T> ResponseEntity<T> revalidatable(ResponseEntity<T> downstream) {
+        HttpHeaders headers = new HttpHeaders();
+        String eTag = downstream.getHeaders().getETag();
+        if (eTag != null) {
+            headers.setETag(eTag.startsWith("W/") ? eTag : "W/" + eTag);
+        }
+        if (downstream.getHeaders().getLastModified() >= 0) {
+            headers.setLastModified(downstream.getHeaders().getLastModified());
+        }
+        return new ResponseEntity<>(downstream.getBody(), headers, HttpStatus.OK);
+    }
+
     @GetMapping(value = "nutrition/facts/{petType}")
     public Mono<PetNutrition> getNutrition(final @PathVariable String petType) {
-        return nutritionServiceClient.getPetNutrition(petType);
+        return ownerPrefetcher.get(OwnerPrefetcher.NUTRITION, petType, PetNutrition.class,
+            () -> requestCoalescer.coalesce("nutrition", petType, () -> nutritionServiceClient.getPetNutrition(petType)));
     }
 
 }
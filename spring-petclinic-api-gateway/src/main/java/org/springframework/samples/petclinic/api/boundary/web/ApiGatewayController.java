@@ -18,25 +18,38 @@
  */
 package org.springframework.samples.petclinic.api.boundary.web;
 
-import lombok.RequiredArgsConstructor;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.LastKnownGoodStore;
+import org.springframework.samples.petclinic.api.application.OwnerBatchService;
+import org.springframework.samples.petclinic.api.application.OwnerDashboardService;
+import org.springframework.samples.petclinic.api.application.OwnerPrefetcher;
+import org.springframework.samples.petclinic.api.application.RequestCoalescer;
 import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
-import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
+import org.springframework.samples.petclinic.api.application.VisitsBatcher;
+import org.springframework.samples.petclinic.api.dto.OwnerDashboard;
 import org.springframework.samples.petclinic.api.dto.OwnerDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.OwnerBatchProperties;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import io.opentelemetry.api.trace.Span;
 
+import java.util.List;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -44,43 +57,114 @@ import java.util.stream.Collectors;
  * @author Maciej Szarlinski
  */
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("/api/gateway")
 public class ApiGatewayController {
 
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private static final String VISITS_FIELD = "pets.visits";
+
     private final CustomersServiceClient customersServiceClient;
 
-    private final VisitsServiceClient visitsServiceClient;
+    private final VisitsBatcher visitsBatcher;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final ReactiveCircuitBreaker visitsCircuitBreaker;
+
+    private final LastKnownGoodStore lastKnownGood;
 
-    private final ReactiveCircuitBreakerFactory cbFactory;
+    private final OwnerDashboardService ownerDashboardService;
+
+    private final OwnerBatchService ownerBatchService;
+
+    private final OwnerBatchProperties ownerBatchProperties;
+
+    private final OwnerPrefetcher ownerPrefetcher;
+
+    public ApiGatewayController(CustomersServiceClient customersServiceClient, VisitsBatcher visitsBatcher,
+                                RequestCoalescer requestCoalescer, ReactiveCircuitBreakerFactory cbFactory,
+                                LastKnownGoodStore lastKnownGood, OwnerDashboardService ownerDashboardService,
+                                OwnerBatchService ownerBatchService, OwnerBatchProperties ownerBatchProperties,
+                                OwnerPrefetcher ownerPrefetcher) {
+        this.customersServiceClient = customersServiceClient;
+        this.visitsBatcher = visitsBatcher;
+        this.requestCoalescer = requestCoalescer;
+        this.visitsCircuitBreaker = cbFactory.create("getOwnerDetails");
+        this.lastKnownGood = lastKnownGood;
+        this.ownerDashboardService = ownerDashboardService;
+        this.ownerBatchService = ownerBatchService;
+        this.ownerBatchProperties = ownerBatchProperties;
+        this.ownerPrefetcher = ownerPrefetcher;
+    }
 
     @GetMapping(value = "owners/{ownerId}")
-    public Mono<OwnerDetails> getOwnerDetails(final @PathVariable int ownerId) {
+    public Mono<OwnerDetails> getOwnerDetails(final @PathVariable int ownerId,
+                                              final @RequestParam(name = FieldSelection.PARAMETER, required = false) String fields,
+                                              final ServerHttpResponse response) {
         Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
-        return customersServiceClient.getOwner(ownerId)
+        Mono<OwnerDetails> ownerDetails = requestCoalescer.coalesce("owner", ownerId, () -> customersServiceClient.getOwner(ownerId))
             .onErrorResume(ex -> Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage())))
+            .doOnNext(ownerPrefetcher::prefetch);
+        if (!FieldSelection.parse(fields).includes(VISITS_FIELD)) {
+            return ownerDetails;
+        }
+        return ownerDetails
             .flatMap(owner ->
-                visitsServiceClient.getVisitsForPets(owner.getPetIds())
-                    .transform(it -> {
-                        ReactiveCircuitBreaker cb = cbFactory.create("getOwnerDetails");
-                        return cb.run(it, throwable -> emptyVisitsForPets());
-                    })
+                visitsBatcher.getVisitsForPets(owner.getPetIds())
+                    .doOnNext(visits -> lastKnownGood.put("visits", ownerId, visits))
+                    .transform(it -> visitsCircuitBreaker.run(it, throwable -> lastKnownVisitsForPets(ownerId, throwable, response)))
                     .map(addVisitsToOwner(owner))
             );
     }
 
+    @GetMapping(value = "owners", params = "ids")
+    public Flux<OwnerDetails> getOwnersDetails(final @RequestParam List<Integer> ids,
+                                               final @RequestParam(name = FieldSelection.PARAMETER, required = false) String fields) {
+        if (ids.size() > ownerBatchProperties.getMaxOwners()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + ownerBatchProperties.getMaxOwners() + " owners can be requested at once"));
+        }
+        return ownerBatchService.getOwners(ids, FieldSelection.parse(fields).includes(VISITS_FIELD));
+    }
+
+    @GetMapping(value = "owners/{ownerId}/dashboard")
+    public Mono<OwnerDashboard> getOwnerDashboard(final @PathVariable int ownerId) {
+        Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
+        return ownerDashboardService.getDashboard(ownerId)
+            .onErrorResume(ex -> Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage())));
+    }
+
     private Function<Visits, OwnerDetails> addVisitsToOwner(OwnerDetails owner) {
         return visits -> {
-            owner.getPets()
+            OwnerDetails details = owner.copy();
+            details.getPets()
                 .forEach(pet -> pet.getVisits()
                     .addAll(visits.getItems().stream()
                         .filter(v -> v.getPetId() == pet.getId())
                         .collect(Collectors.toList()))
                 );
-            return owner;
+            return details;
         };
     }
 
+    /**
+     * While visits-service is failing fast or timing out, the owner page shows the visits we last saw
+     * instead of none. The response is flagged so clients know the data may be out of date.
+     */
+    private Mono<Visits> lastKnownVisitsForPets(int ownerId, Throwable throwable, ServerHttpResponse response) {
+        if (!(throwable instanceof CallNotPermittedException) && !(throwable instanceof TimeoutException)) {
+            return emptyVisitsForPets();
+        }
+        return lastKnownGood.get("visits", ownerId, Visits.class)
+            .map(stale -> {
+                response.getHeaders().set(HttpHeaders.WARNING, STALE_WARNING);
+                response.getHeaders().set(HttpHeaders.AGE, Long.toString(stale.getAge().getSeconds()));
+                return stale.getValue();
+            })
+            .switchIfEmpty(emptyVisitsForPets());
+    }
+
     private Mono<Visits> emptyVisitsForPets() {
         return Mono.just(new Visits());
     }
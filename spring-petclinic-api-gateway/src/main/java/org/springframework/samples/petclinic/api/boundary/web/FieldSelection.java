@@ -0,0 +1,91 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The properties asked for with {@code fields=}, as dotted paths relative to the returned resource,
+ * e.g. {@code fields=firstName,pets.name}. Selecting a property selects everything below it, and
+ * the objects leading to a selected property are kept. Without {@code fields=} everything is selected.
+ */
+public final class FieldSelection {
+
+    public static final String PARAMETER = "fields";
+
+    static final String FILTER_ID = "fieldSelection";
+
+    private static final FieldSelection ALL = new FieldSelection(Collections.emptySet());
+
+    private final Set<String> paths;
+
+    private FieldSelection(Set<String> paths) {
+        this.paths = paths;
+    }
+
+    public static FieldSelection parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return ALL;
+        }
+        Set<String> paths = Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(path -> !path.isEmpty())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        return paths.isEmpty() ? ALL : new FieldSelection(paths);
+    }
+
+    public boolean isAll() {
+        return paths.isEmpty();
+    }
+
+    public boolean includes(String path) {
+        if (isAll()) {
+            return true;
+        }
+        for (String selected : paths) {
+            if (selected.equals(path) || path.startsWith(selected + ".") || selected.startsWith(path + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Filter for the DTOs registered with {@link #FILTER_ID}, writing only the selected properties.
+     */
+    PropertyFilter filter() {
+        return new SimpleBeanPropertyFilter() {
+            @Override
+            public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider,
+                                         PropertyWriter writer) throws Exception {
+                if (includes(path(generator.getOutputContext(), writer.getName()))) {
+                    writer.serializeAsField(pojo, generator, provider);
+                } else if (!generator.canOmitFields()) {
+                    writer.serializeAsOmittedField(pojo, generator, provider);
+                }
+            }
+        };
+    }
+
+    private static String path(JsonStreamContext context, String name) {
+        StringBuilder path = new StringBuilder(name);
+        for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent.inObject() && parent.getCurrentName() != null) {
+                path.insert(0, '.').insert(0, parent.getCurrentName());
+            }
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.PetFull;
+import org.springframework.samples.petclinic.api.dto.PetType;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Lets clients trim owner and pet responses with {@code fields=}. The filter is only attached to the
+ * server's JSON encoder; the application's {@link ObjectMapper}, used by the clients and caches, is
+ * left as it is. Without a selection the filter id resolves to nothing and every property is written.
+ */
+@Configuration(proxyBeanMethods = false)
+class FieldSelectionConfiguration implements WebFluxConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    FieldSelectionConfiguration(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        ObjectMapper mapper = objectMapper.copy()
+            .addMixIn(OwnerDetails.class, Selectable.class)
+            .addMixIn(PetDetails.class, Selectable.class)
+            .addMixIn(PetFull.class, Selectable.class)
+            .addMixIn(PetType.class, Selectable.class)
+            .addMixIn(VisitDetails.class, Selectable.class)
+            .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        configurer.defaultCodecs().jackson2JsonEncoder(new FieldSelectionEncoder(mapper));
+    }
+
+    @JsonFilter(FieldSelection.FILTER_ID)
+    private interface Selectable {
+    }
+}
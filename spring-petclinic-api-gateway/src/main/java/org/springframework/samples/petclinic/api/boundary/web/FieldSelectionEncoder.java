@@ -0,0 +1,54 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JSON encoder that honours {@code fields=} on the request: the selection travels as an encode
+ * hint and is applied as a Jackson filter while writing, for single values and for streamed
+ * elements alike, so unselected properties are never serialized.
+ */
+class FieldSelectionEncoder extends Jackson2JsonEncoder {
+
+    static final String FIELD_SELECTION_HINT = FieldSelection.class.getName();
+
+    FieldSelectionEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType,
+                                              MediaType mediaType, ServerHttpRequest request,
+                                              ServerHttpResponse response) {
+        Map<String, Object> hints = super.getEncodeHints(actualType, elementType, mediaType, request, response);
+        FieldSelection selection = FieldSelection.parse(request.getQueryParams().getFirst(FieldSelection.PARAMETER));
+        if (selection.isAll()) {
+            return hints;
+        }
+        Map<String, Object> withSelection = new HashMap<>(hints);
+        withSelection.put(FIELD_SELECTION_HINT, selection);
+        return withSelection;
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType,
+                                           ResolvableType elementType, Map<String, Object> hints) {
+        FieldSelection selection = hints != null ? (FieldSelection) hints.get(FIELD_SELECTION_HINT) : null;
+        if (selection == null) {
+            return writer;
+        }
+        return writer.with(new SimpleFilterProvider().addFilter(FieldSelection.FILTER_ID, selection.filter()));
+    }
+}
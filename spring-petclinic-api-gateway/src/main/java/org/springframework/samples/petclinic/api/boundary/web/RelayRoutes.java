@@ -0,0 +1,85 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import io.opentelemetry.api.trace.Span;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.api.application.BillingServiceClient;
+import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.PaymentClient;
+import org.springframework.samples.petclinic.api.system.RelayProperties;
+import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Relay mode for the pass-through endpoints of {@link ApiController}. For the endpoints listed in
+ * {@link RelayProperties} the downstream body is streamed to the client buffer by buffer, with its
+ * content headers, without going through Jackson. Router functions are matched before annotated
+ * controllers, so the other endpoints, all of them while relaying is off, and requests for the
+ * NDJSON or server-sent event variants are still served by {@link ApiController}.
+ */
+@Configuration(proxyBeanMethods = false)
+class RelayRoutes {
+
+    private static final List<String> RELAYED_HEADERS = Arrays.asList(HttpHeaders.CONTENT_TYPE,
+        HttpHeaders.CONTENT_LENGTH, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL);
+
+    private static final List<MediaType> STREAMING_TYPES = Arrays.asList(MediaType.APPLICATION_NDJSON,
+        MediaType.TEXT_EVENT_STREAM);
+
+    @Bean
+    RouterFunction<ServerResponse> relayRouterFunction(RelayProperties properties, CustomersServiceClient customersServiceClient,
+                                                       BillingServiceClient billingServiceClient, PaymentClient paymentClient) {
+        return RouterFunctions.route()
+            .GET("/api/customer/owners", relayed(properties, "owners"),
+                request -> relay(customersServiceClient.relayOwners()))
+            .GET("/api/billing/billings", relayed(properties, "billings"),
+                request -> relay(billingServiceClient.relayBillings(request.headers().asHttpHeaders())))
+            .GET("/api/billing/summary", relayed(properties, "billing-summary"),
+                request -> relay(billingServiceClient.relayBillingSummary(request.headers().asHttpHeaders())))
+            // Ids that are not plain ints are left to ApiController, which rejects them with 400
+            .GET("/api/payments/owners/{ownerId:\\d{1,9}}/pets/{petId:\\d{1,9}}", relayed(properties, "payments"), request -> {
+                int ownerId = Integer.parseInt(request.pathVariable("ownerId"));
+                int petId = Integer.parseInt(request.pathVariable("petId"));
+                Span.current().setAttribute(WellKnownAttributes.OWNER_ID, ownerId);
+                Span.current().setAttribute(WellKnownAttributes.PET_ID, petId);
+                return relay(paymentClient.relayPayments(ownerId, petId));
+            })
+            .build();
+    }
+
+    private static RequestPredicate relayed(RelayProperties properties, String endpoint) {
+        return request -> properties.getEndpoints().contains(endpoint)
+            && request.headers().accept().stream().noneMatch(RelayRoutes::isStreaming);
+    }
+
+    private static boolean isStreaming(MediaType mediaType) {
+        return STREAMING_TYPES.stream().anyMatch(mediaType::equalsTypeAndSubtype);
+    }
+
+    static Mono<ServerResponse> relay(Mono<ResponseEntity<Flux<DataBuffer>>> downstream) {
+        return downstream
+            .flatMap(entity -> ServerResponse.status(entity.getStatusCode())
+                .headers(headers -> RELAYED_HEADERS.forEach(name -> {
+                    List<String> values = entity.getHeaders().get(name);
+                    if (values != null) {
+                        headers.put(name, values);
+                    }
+                }))
+                .body(entity.getBody(), DataBuffer.class))
+            .onErrorMap(ResilienceExceptionHandler::translate);
+    }
+}
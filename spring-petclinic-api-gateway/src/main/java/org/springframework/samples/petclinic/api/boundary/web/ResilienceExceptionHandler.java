@@ -0,0 +1,47 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.api.application.ConcurrencyLimitExceededException;
+import org.springframework.samples.petclinic.api.application.DeadlineExceededException;
+import org.springframework.samples.petclinic.api.application.PriorityLaneFullException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Calls rejected by a downstream circuit breaker, bulkhead, concurrency limit or priority lane were
+ * never sent, so they are reported as 503 rather than as a gateway error. Calls skipped because the
+ * request's deadline has passed are reported as 504.
+ */
+@RestControllerAdvice
+class ResilienceExceptionHandler {
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class,
+        ConcurrencyLimitExceededException.class, PriorityLaneFullException.class})
+    void downstreamUnavailable(RuntimeException ex) {
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    void deadlineExceeded(DeadlineExceededException ex) {
+        throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), ex);
+    }
+
+    /**
+     * The same translation for handlers outside of annotated controllers, e.g. router functions.
+     */
+    static Throwable translate(Throwable ex) {
+        if (ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException
+            || ex instanceof ConcurrencyLimitExceededException || ex instanceof PriorityLaneFullException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex);
+        }
+        if (ex instanceof DeadlineExceededException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), ex);
+        }
+        return ex;
+    }
+}
@@ -0,0 +1,35 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+/**
+ * One part of an {@link OwnerDashboard}. Sections whose service failed or did not answer in time
+ * carry no data, so the rest of the dashboard can still be shown.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardSection<T> {
+
+    public enum Status {
+        OK, FAILED, TIMED_OUT
+    }
+
+    Status status;
+
+    T data;
+
+    public static <T> DashboardSection<T> ok(T data) {
+        return new DashboardSection<>(Status.OK, data);
+    }
+
+    public static <T> DashboardSection<T> failed() {
+        return new DashboardSection<>(Status.FAILED, null);
+    }
+
+    public static <T> DashboardSection<T> timedOut() {
+        return new DashboardSection<>(Status.TIMED_OUT, null);
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Everything the owner page shows, in one response. Pet sections are keyed by pet id, nutrition
+ * facts by pet type. {@code partial} is set when any section is missing.
+ */
+@Data
+public class OwnerDashboard {
+
+    private final OwnerDetails owner;
+
+    private DashboardSection<Visits> visits;
+
+    private final Map<Integer, DashboardSection<PetInsurance>> insurances = new TreeMap<>();
+
+    private final Map<Integer, DashboardSection<List<PaymentDetail>>> payments = new TreeMap<>();
+
+    private final Map<String, DashboardSection<PetNutrition>> nutrition = new TreeMap<>();
+
+    public boolean isPartial() {
+        return isMissing(visits)
+            || insurances.values().stream().anyMatch(OwnerDashboard::isMissing)
+            || payments.values().stream().anyMatch(OwnerDashboard::isMissing)
+            || nutrition.values().stream().anyMatch(OwnerDashboard::isMissing);
+    }
+
+    private static boolean isMissing(DashboardSection<?> section) {
+        return section != null && section.getStatus() != DashboardSection.Status.OK;
+    }
+}
@@ -49,4 +49,19 @@ public class OwnerDetails {
             .map(PetDetails::getId)
             .collect(toList());
     }
+
+    /**
+     * Copy that can be enriched with visits without touching an instance shared by other requests.
+     */
+    public OwnerDetails copy() {
+        OwnerDetails copy = new OwnerDetails();
+        copy.setId(id);
+        copy.setFirstName(firstName);
+        copy.setLastName(lastName);
+        copy.setAddress(address);
+        copy.setCity(city);
+        copy.setTelephone(telephone);
+        pets.forEach(pet -> copy.getPets().add(pet.copy()));
+        return copy;
+    }
 }
@@ -35,4 +35,14 @@ public class PetDetails {
     private PetType type;
 
     private final List<VisitDetails> visits = new ArrayList<>();
+
+    public PetDetails copy() {
+        PetDetails copy = new PetDetails();
+        copy.setId(id);
+        copy.setName(name);
+        copy.setBirthDate(birthDate);
+        copy.setType(type);
+        copy.getVisits().addAll(visits);
+        return copy;
+    }
 }
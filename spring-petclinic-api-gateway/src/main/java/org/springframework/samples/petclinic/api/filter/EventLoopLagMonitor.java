@@ -0,0 +1,75 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how far behind the Netty event loops run. Every {@code interval} a task is scheduled on
+ * each loop; how late it runs is the loop's lag. A loop that is stuck right now counts as lagging by
+ * how long its probe is overdue, without waiting for the probe to run.
+ */
+public class EventLoopLagMonitor {
+
+    private final List<EventExecutor> loops = new ArrayList<>();
+
+    private final long intervalNanos;
+
+    private final AtomicLongArray lags;
+
+    private final AtomicLongArray deadlines;
+
+    private volatile boolean running;
+
+    public EventLoopLagMonitor(EventExecutorGroup group, Duration interval) {
+        group.forEach(loops::add);
+        this.intervalNanos = interval.toNanos();
+        this.lags = new AtomicLongArray(loops.size());
+        this.deadlines = new AtomicLongArray(loops.size());
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < loops.size(); i++) {
+            probe(i);
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * The lag of the slowest loop, zero while the monitor is stopped.
+     */
+    public Duration lag() {
+        if (!running) {
+            return Duration.ZERO;
+        }
+        long now = System.nanoTime();
+        long max = 0;
+        for (int i = 0; i < loops.size(); i++) {
+            max = Math.max(max, Math.max(lags.get(i), now - deadlines.get(i)));
+        }
+        return Duration.ofNanos(max);
+    }
+
+    private void probe(int index) {
+        if (!running) {
+            return;
+        }
+        long deadline = System.nanoTime() + intervalNanos;
+        deadlines.set(index, deadline);
+        loops.get(index).schedule(() -> {
+            lags.set(index, Math.max(0, System.nanoTime() - deadline));
+            probe(index);
+        }, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.samples.petclinic.api.application.RequestPriority;
+import org.springframework.samples.petclinic.api.system.LoadSheddingProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpResources;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rejects synthetic {@code /api/} requests, as classified by {@link RequestPriorityFilter}, with 503
+ * and {@code Retry-After} while the event loops lag or too many requests are in flight, so the
+ * remaining requests keep their latency instead of all of them slowing down. Health checks and
+ * static content are never shed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class LoadSheddingFilter implements WebFilter {
+
+    private final LoadSheddingProperties properties;
+
+    private final EventLoopLagMonitor lagMonitor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Autowired
+    public LoadSheddingFilter(LoadSheddingProperties properties, MeterRegistry meterRegistry) {
+        this(properties, new EventLoopLagMonitor(HttpResources.get().onServer(true), properties.getProbeInterval()),
+            meterRegistry);
+    }
+
+    LoadSheddingFilter(LoadSheddingProperties properties, EventLoopLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lagMonitor = lagMonitor;
+        this.meterRegistry = meterRegistry;
+        TimeGauge.builder("gateway.load-shedding.event-loop-lag", lagMonitor, TimeUnit.MILLISECONDS,
+                monitor -> monitor.lag().toNanos() / 1e6)
+            .description("How far behind the slowest server event loop runs")
+            .register(meterRegistry);
+        Gauge.builder("gateway.load-shedding.in-flight", inFlight, AtomicInteger::get)
+            .description("API requests being handled")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (properties.isEnabled()) {
+            lagMonitor.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        lagMonitor.stop();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        String reason = overload();
+        if (reason != null && exchange.getAttributeOrDefault(RequestPriority.ATTRIBUTE, RequestPriority.INTERACTIVE)
+            == RequestPriority.SYNTHETIC) {
+            Counter.builder("gateway.load-shedding.shed")
+                .description("Synthetic requests rejected while the gateway was overloaded")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, properties.getRetryAfter().getSeconds())));
+            return response.setComplete();
+        }
+        inFlight.incrementAndGet();
+        return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private String overload() {
+        if (inFlight.get() >= properties.getMaxInFlight()) {
+            return "in-flight";
+        }
+        if (lagMonitor.lag().compareTo(properties.getMaxLag()) > 0) {
+            return "lag";
+        }
+        return null;
+    }
+}
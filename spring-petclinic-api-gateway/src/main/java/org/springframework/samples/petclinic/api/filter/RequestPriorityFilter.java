@@ -0,0 +1,36 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.samples.petclinic.api.application.RequestPriority;
+import org.springframework.samples.petclinic.api.system.PriorityLaneProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Classifies every incoming request as interactive or synthetic traffic, for load shedding and for
+ * the priority lanes in front of the downstream services.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestPriorityFilter implements WebFilter {
+
+    private final PriorityLaneProperties properties;
+
+    public RequestPriorityFilter(PriorityLaneProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestPriority priority = RequestPriority.classify(exchange.getRequest().getHeaders(),
+            properties.getSyntheticUserAgents());
+        exchange.getAttributes().put(RequestPriority.ATTRIBUTE, priority);
+        return chain.filter(exchange).contextWrite(context -> context.put(RequestPriority.class, priority));
+    }
+}
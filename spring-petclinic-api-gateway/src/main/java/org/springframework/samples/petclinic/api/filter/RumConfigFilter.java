@@ -1,36 +1,70 @@
 package org.springframework.samples.petclinic.api.filter;
 
-import org.reactivestreams.Publisher;
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
-import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.samples.petclinic.api.assets.AssetManifest;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.samples.petclinic.api.assets.AcceptEncoding.accepts;
 
 /**
  * Filter to inject AWS RUM configuration values into the index.html file.
- * This filter intercepts requests to the root path or index.html and replaces
- * placeholder values with actual configuration from application.yml.
+ * The placeholders are replaced once at startup with the actual configuration from
+ * application.yml, and asset references are pointed at their fingerprinted names; requests
+ * to the root path or index.html are then answered from the prepared bytes, brotli or gzip
+ * compressed when the client accepts it, and with 304 when the client's copy is still current.
  */
+@Slf4j
 @Component
 public class RumConfigFilter implements WebFilter {
 
-    @Value("${aws.rum.monitor.id}")
-    private String monitorId;
+    private final Variant identity;
+
+    private final Variant gzip;
+
+    private final Variant brotli;
 
-    @Value("${aws.rum.monitor.identity-pool-id}")
-    private String identityPoolId;
-    
-    @Value("${aws.region}")
-    private String region;
+    public RumConfigFilter(@Value("${aws.rum.monitor.id}") String monitorId,
+                           @Value("${aws.rum.monitor.identity-pool-id}") String identityPoolId,
+                           @Value("${aws.region}") String region,
+                           @Value("classpath:/static/index.html") Resource indexHtml,
+                           AssetManifest assetManifest) throws IOException {
+        String content;
+        try (InputStream in = indexHtml.getInputStream()) {
+            content = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+        // Replace placeholders with actual configuration values
+        content = content.replace("{{AWS_RUM_MONITOR_ID}}", monitorId);
+        content = content.replace("{{AWS_RUM_IDENTITY_POOL_ID}}", identityPoolId);
+        content = content.replace("{{REGION}}", region);
+        content = assetManifest.rewrite(content);
+
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = DigestUtils.md5DigestAsHex(bytes);
+        this.identity = new Variant(bytes, null, "\"" + hash + "\"");
+        this.gzip = new Variant(gzip(bytes), "gzip", "\"" + hash + "-gzip\"");
+        this.brotli = brotli(bytes, hash);
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -38,47 +72,67 @@ public class RumConfigFilter implements WebFilter {
         String path = request.getURI().getPath();
 
         // Only process index.html or root path
-        if ("/".equals(path) || "/index.html".equals(path)) {
-            ServerHttpResponse originalResponse = exchange.getResponse();
-            
-            // Create a response decorator to modify the response body
-            ServerHttpResponseDecorator decoratedResponse = new ServerHttpResponseDecorator(originalResponse) {
-                @Override
-                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
-                    if (body instanceof Flux) {
-                        Flux<? extends DataBuffer> fluxBody = (Flux<? extends DataBuffer>) body;
-                        
-                        return super.writeWith(fluxBody.buffer().map(dataBuffers -> {
-                            // Combine all data buffers
-                            StringBuilder builder = new StringBuilder();
-                            dataBuffers.forEach(buffer -> {
-                                byte[] bytes = new byte[buffer.readableByteCount()];
-                                buffer.read(bytes);
-                                builder.append(new String(bytes, StandardCharsets.UTF_8));
-                            });
-                            
-                            // Replace placeholders with actual configuration values
-                            String content = builder.toString();
-                            content = content.replace("{{AWS_RUM_MONITOR_ID}}", monitorId);
-                            content = content.replace("{{AWS_RUM_IDENTITY_POOL_ID}}", identityPoolId);
-                            content = content.replace("{{REGION}}", region);
-                            
-                            // Create a new data buffer with modified content
-                            byte[] modifiedBytes = content.getBytes(StandardCharsets.UTF_8);
-                            DataBuffer modifiedBuffer = exchange.getResponse().bufferFactory().wrap(modifiedBytes);
-                            
-                            return modifiedBuffer;
-                        }).flatMap(Flux::just));
-                    }
-                    
-                    return super.writeWith(body);
-                }
-            };
-
-            return chain.filter(exchange.mutate().response(decoratedResponse).build());
+        if (("/".equals(path) || "/index.html".equals(path))
+            && (request.getMethod() == HttpMethod.GET || request.getMethod() == HttpMethod.HEAD)) {
+            Variant variant = select(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+            ServerHttpResponse response = exchange.getResponse();
+            HttpHeaders headers = response.getHeaders();
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            headers.setCacheControl("no-cache");
+            if (exchange.checkNotModified(variant.etag)) {
+                return response.setComplete();
+            }
+            headers.setContentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+            headers.setContentLength(variant.bytes.length);
+            if (variant.encoding != null) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, variant.encoding);
+            }
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(variant.bytes)));
         }
-        
+
         // For other paths, continue without modification
         return chain.filter(exchange);
     }
+
+    private Variant select(String acceptEncoding) {
+        if (brotli != null && accepts(acceptEncoding, "br")) {
+            return brotli;
+        }
+        return accepts(acceptEncoding, "gzip") ? gzip : identity;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static Variant brotli(byte[] bytes, String hash) {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return new Variant(Encoder.compress(bytes, new Encoder.Parameters().setQuality(11)), "br",
+                "\"" + hash + "-br\"");
+        } catch (Throwable ex) {
+            // No native brotli library for this platform, gzip will do
+            log.info("Brotli unavailable, serving index.html with gzip only: {}", ex.toString());
+            return null;
+        }
+    }
+
+    private static final class Variant {
+
+        private final byte[] bytes;
+
+        private final String encoding;
+
+        private final String etag;
+
+        Variant(byte[] bytes, String encoding, String etag) {
+            this.bytes = bytes;
+            this.encoding = encoding;
+            this.etag = etag;
+        }
+    }
 }
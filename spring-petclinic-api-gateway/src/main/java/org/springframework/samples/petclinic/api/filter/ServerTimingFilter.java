@@ -0,0 +1,46 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import org.springframework.samples.petclinic.api.application.ServerTiming;
+import org.springframework.samples.petclinic.api.system.ServerTimingProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collects the downstream calls of sampled {@code /api/} requests and reports them in a
+ * {@code Server-Timing} header, so the browser's developer tools show which service a slow
+ * page waited on.
+ */
+@Component
+public class ServerTimingFilter implements WebFilter {
+
+    private final ServerTimingProperties properties;
+
+    public ServerTimingFilter(ServerTimingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()
+            || !exchange.getRequest().getPath().value().startsWith("/api/")
+            || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return chain.filter(exchange);
+        }
+        ServerTiming timing = new ServerTiming();
+        exchange.getResponse().beforeCommit(() -> {
+            String header = timing.header();
+            if (header != null) {
+                exchange.getResponse().getHeaders().add(ServerTiming.HEADER, header);
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange).contextWrite(context -> context.put(ServerTiming.class, timing));
+    }
+}
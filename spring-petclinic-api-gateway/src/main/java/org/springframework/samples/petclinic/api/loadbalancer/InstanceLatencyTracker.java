@@ -0,0 +1,129 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.samples.petclinic.api.application.ClientFilterFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures every downstream call per service instance, after the load balancer has picked the
+ * instance. Runs as the innermost client filter so it sees the network latency only, and its
+ * outstanding counts stay right when calls are cancelled.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class InstanceLatencyTracker implements ClientFilterFactory {
+
+    private static final double UNMEASURED_PENALTY_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    private final long decayNanos;
+
+    private final LongSupplier clock;
+
+    @Autowired
+    public InstanceLatencyTracker(@Value("${gateway.load-balancer.decay:10s}") Duration decay) {
+        this(decay, System::nanoTime);
+    }
+
+    InstanceLatencyTracker(Duration decay, LongSupplier clock) {
+        this.decayNanos = decay.toNanos();
+        this.clock = clock;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ExchangeFilterFunction create(String serviceId) {
+        return (request, next) -> {
+            InstanceStats instance = statsFor(request.url());
+            request.attribute(LoadBalancerHints.CHOSEN_INSTANCE)
+                .ifPresent(chosen -> ((AtomicReference<String>) chosen).set(key(request.url())));
+            long start = instance.start();
+            return next.exchange(request)
+                .doFinally(signal -> instance.finish(start, signal != SignalType.CANCEL));
+        };
+    }
+
+    /**
+     * Peak-EWMA cost of sending one more request to {@code instance}: the decayed latency estimate
+     * weighted by the requests already outstanding on it.
+     */
+    public double cost(ServiceInstance instance) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        return instanceStats == null ? 0 : instanceStats.cost();
+    }
+
+    InstanceStats statsFor(URI url) {
+        return stats.computeIfAbsent(key(url), key -> new InstanceStats());
+    }
+
+    static String key(ServiceInstance instance) {
+        return key(instance.getHost(), instance.getPort(), instance.isSecure());
+    }
+
+    private static String key(URI url) {
+        return key(url.getHost(), url.getPort(), "https".equals(url.getScheme()));
+    }
+
+    private static String key(String host, int port, boolean secure) {
+        return host + ':' + (port >= 0 ? port : secure ? 443 : 80);
+    }
+
+    final class InstanceStats {
+
+        private long outstanding;
+
+        private double ewmaNanos;
+
+        private long stamp = clock.getAsLong();
+
+        synchronized long start() {
+            outstanding++;
+            return clock.getAsLong();
+        }
+
+        synchronized void finish(long start, boolean observe) {
+            outstanding--;
+            if (observe) {
+                long now = clock.getAsLong();
+                observe(now, now - start);
+            }
+        }
+
+        private void observe(long now, long rttNanos) {
+            if (rttNanos > ewmaNanos) {
+                // Peak sensitivity: a slow response moves the estimate up immediately
+                ewmaNanos = rttNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - stamp) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+            }
+            stamp = now;
+        }
+
+        synchronized double cost() {
+            if (ewmaNanos == 0) {
+                // Nothing measured yet: allow a probe, but don't pile requests onto an unknown instance
+                return outstanding * UNMEASURED_PENALTY_NANOS;
+            }
+            long now = clock.getAsLong();
+            double decayed = ewmaNanos * Math.exp(-(double) (now - stamp) / decayNanos);
+            return decayed * (outstanding + 1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.loadbalancer;
+
+/**
+ * {@link org.springframework.web.reactive.function.client.ClientRequest} attributes understood by
+ * the gateway load balancer. Both hold an {@code AtomicReference<String>} with an instance's
+ * {@code host:port}, so one call can report where it went and a later call can steer clear of it.
+ */
+public final class LoadBalancerHints {
+
+    /**
+     * Filled in with the instance the request was sent to.
+     */
+    public static final String CHOSEN_INSTANCE = LoadBalancerHints.class.getName() + ".chosen";
+
+    /**
+     * Instance to avoid when any other is available.
+     */
+    public static final String AVOID_INSTANCE = LoadBalancerHints.class.getName() + ".avoid";
+
+    private LoadBalancerHints() {
+    }
+}
@@ -0,0 +1,35 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.route;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/routelatency}: latency percentiles of every gateway route over the sliding
+ * window, independent of trace sampling.
+ */
+@Component
+@Endpoint(id = "routelatency")
+public class RouteLatencyEndpoint {
+
+    private final RouteLatencyRegistry registry;
+
+    public RouteLatencyEndpoint(RouteLatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, RouteLatencyRegistry.RouteLatency> routes() {
+        return registry.snapshot();
+    }
+
+    @ReadOperation
+    public RouteLatencyRegistry.RouteLatency route(@Selector String routeId) {
+        return registry.snapshot(routeId);
+    }
+}
@@ -0,0 +1,154 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.route;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.samples.petclinic.api.system.RouteLatencyProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of every gateway route in HdrHistograms. Requests record into a {@link Recorder}, which
+ * never blocks them; readers and the periodic rotation swap its interval histogram out and add it
+ * to a ring of slices that together cover the sliding window.
+ */
+@Component
+public class RouteLatencyRegistry implements DisposableBean {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final RouteLatencyProperties properties;
+
+    private final Map<String, RouteHistogram> routes = new ConcurrentHashMap<>();
+
+    private final Disposable rotation;
+
+    public RouteLatencyRegistry(RouteLatencyProperties properties) {
+        this.properties = properties;
+        long step = properties.getWindow().toNanos() / properties.getSlices();
+        this.rotation = Schedulers.parallel().schedulePeriodically(this::rotate, step, step, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(String routeId, long nanos) {
+        routes.computeIfAbsent(routeId, id -> new RouteHistogram()).recorder
+            .recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public Map<String, RouteLatency> snapshot() {
+        Map<String, RouteLatency> snapshot = new TreeMap<>();
+        routes.forEach((routeId, histogram) -> snapshot.put(routeId, histogram.snapshot()));
+        return snapshot;
+    }
+
+    public RouteLatency snapshot(String routeId) {
+        RouteHistogram histogram = routes.get(routeId);
+        return histogram == null ? null : histogram.snapshot();
+    }
+
+    void rotate() {
+        routes.values().forEach(RouteHistogram::rotate);
+    }
+
+    @Override
+    public void destroy() {
+        rotation.dispose();
+    }
+
+    private final class RouteHistogram {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+
+        private final Histogram[] slices = new Histogram[properties.getSlices()];
+
+        private Histogram recycled;
+
+        private int current;
+
+        RouteHistogram() {
+            for (int i = 0; i < slices.length; i++) {
+                slices[i] = new Histogram(SIGNIFICANT_DIGITS);
+            }
+        }
+
+        private void drain() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            slices[current].add(recycled);
+        }
+
+        synchronized void rotate() {
+            drain();
+            current = (current + 1) % slices.length;
+            slices[current].reset();
+        }
+
+        synchronized RouteLatency snapshot() {
+            drain();
+            Histogram window = new Histogram(SIGNIFICANT_DIGITS);
+            for (Histogram slice : slices) {
+                window.add(slice);
+            }
+            Duration expectedInterval = properties.getExpectedInterval();
+            if (expectedInterval == null) {
+                return new RouteLatency(Percentiles.of(window), null);
+            }
+            long expectedIntervalMicros = TimeUnit.NANOSECONDS.toMicros(expectedInterval.toNanos());
+            return new RouteLatency(Percentiles.of(window),
+                Percentiles.of(window.copyCorrectedForCoordinatedOmission(expectedIntervalMicros)));
+        }
+    }
+
+    /**
+     * Route latency over the window, as measured and corrected for coordinated omission: the
+     * requests that would have been sent, and delayed, while a slow one was outstanding. The
+     * correction needs the interval requests are expected at; without one it is null.
+     */
+    @Value
+    public static class RouteLatency {
+
+        Percentiles measured;
+
+        Percentiles corrected;
+    }
+
+    /**
+     * Latency percentiles in milliseconds.
+     */
+    @Value
+    public static class Percentiles {
+
+        long count;
+
+        double p50;
+
+        double p90;
+
+        double p99;
+
+        double p999;
+
+        double max;
+
+        static Percentiles of(Histogram histogram) {
+            return new Percentiles(histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.route;
+
+import io.opentelemetry.instrumentation.annotations.SpanAttribute;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import org.springframework.samples.petclinic.api.utils.WellKnownAttributes;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the route a request took as a span. Kept in its own bean so the filter calls it through
+ * whatever proxy instruments {@link WithSpan}, rather than on itself.
+ */
+@Component
+public class RouteTracer {
+
+    @WithSpan(value = "RecordRoute")
+    public void traceRouteInfo(@SpanAttribute(WellKnownAttributes.REMOTE_APPLICATION) String application,
+                               @SpanAttribute(WellKnownAttributes.REMOTE_OPERATION) String operation) {
+
+    }
+}
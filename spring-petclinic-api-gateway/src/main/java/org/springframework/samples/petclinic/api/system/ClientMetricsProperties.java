@@ -0,0 +1,29 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings for the RED metrics recorded on every downstream call. {@code slo} sets the latency
+ * histogram buckets; {@code maxUriTags} is a safety net that stops recording new {@code uri} tag
+ * values should a client ever send a raw URI instead of a template.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.client-metrics")
+public class ClientMetricsProperties {
+
+    private boolean enabled = true;
+
+    private List<Duration> slo = new ArrayList<>(Arrays.asList(Duration.ofMillis(50), Duration.ofMillis(100),
+        Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2),
+        Duration.ofSeconds(4)));
+
+    private int maxUriTags = 100;
+}
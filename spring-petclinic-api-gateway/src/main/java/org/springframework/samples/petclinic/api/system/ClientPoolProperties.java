@@ -0,0 +1,77 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool settings for the downstream service clients. An entry under {@code services}
+ * overrides only the settings it names; the rest come from the {@code defaults} pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.clients")
+public class ClientPoolProperties {
+
+    private Pool defaults = Pool.standard();
+
+    private Map<String, Pool> services = new HashMap<>();
+
+    public Pool poolFor(String serviceId) {
+        Pool overrides = services.get(serviceId);
+        return overrides == null ? defaults : defaults.overriddenBy(overrides);
+    }
+
+    /**
+     * Pool settings; those left null fall back to the {@code defaults} pool.
+     */
+    @Data
+    public static class Pool {
+
+        private Integer maxConnections;
+
+        private Integer pendingAcquireMaxCount;
+
+        private Duration pendingAcquireTimeout;
+
+        private Duration maxIdleTime;
+
+        private Duration evictionInterval;
+
+        private Duration connectTimeout;
+
+        private Duration responseTimeout;
+
+        static Pool standard() {
+            Pool pool = new Pool();
+            pool.maxConnections = 100;
+            pool.pendingAcquireMaxCount = 500;
+            pool.pendingAcquireTimeout = Duration.ofSeconds(5);
+            pool.maxIdleTime = Duration.ofSeconds(30);
+            pool.evictionInterval = Duration.ofSeconds(60);
+            pool.connectTimeout = Duration.ofSeconds(2);
+            pool.responseTimeout = Duration.ofSeconds(4);
+            return pool;
+        }
+
+        Pool overriddenBy(Pool overrides) {
+            Pool pool = new Pool();
+            pool.maxConnections = orElse(overrides.maxConnections, maxConnections);
+            pool.pendingAcquireMaxCount = orElse(overrides.pendingAcquireMaxCount, pendingAcquireMaxCount);
+            pool.pendingAcquireTimeout = orElse(overrides.pendingAcquireTimeout, pendingAcquireTimeout);
+            pool.maxIdleTime = orElse(overrides.maxIdleTime, maxIdleTime);
+            pool.evictionInterval = orElse(overrides.evictionInterval, evictionInterval);
+            pool.connectTimeout = orElse(overrides.connectTimeout, connectTimeout);
+            pool.responseTimeout = orElse(overrides.responseTimeout, responseTimeout);
+            return pool;
+        }
+
+        private static <T> T orElse(T value, T fallback) {
+            return value != null ? value : fallback;
+        }
+    }
+}
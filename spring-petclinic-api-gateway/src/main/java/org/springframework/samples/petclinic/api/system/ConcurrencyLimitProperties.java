@@ -0,0 +1,37 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the adaptive per-service concurrency limit. The limit starts at
+ * {@code initialLimit} and follows the gradient between the long-term and the latest round-trip
+ * time: it grows while latency holds up and shrinks as soon as latency rises above
+ * {@code rttTolerance} times the long-term average.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 5;
+
+    private int maxLimit = 200;
+
+    /**
+     * How far a new sample moves the limit, between 0 and 1.
+     */
+    private double smoothing = 0.2;
+
+    private double rttTolerance = 1.5;
+
+    /**
+     * Samples averaged into the long-term round-trip time.
+     */
+    private int longWindow = 600;
+}
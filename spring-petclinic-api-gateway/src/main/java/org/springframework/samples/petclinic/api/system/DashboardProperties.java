@@ -0,0 +1,21 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the owner dashboard. At most {@code parallelism} downstream calls run at once for
+ * one dashboard, and a section still missing after {@code sectionTimeout} is reported as timed out.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.dashboard")
+public class DashboardProperties {
+
+    private int parallelism = 8;
+
+    private Duration sectionTimeout = Duration.ofSeconds(1);
+}
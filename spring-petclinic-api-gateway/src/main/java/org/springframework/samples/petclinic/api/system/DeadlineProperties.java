@@ -0,0 +1,21 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Time budget of a request entering the gateway. Every downstream call made on its behalf carries
+ * what is left of the budget, so backends can stop working on requests the gateway has given up on.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    private Duration timeout = Duration.ofSeconds(4);
+}
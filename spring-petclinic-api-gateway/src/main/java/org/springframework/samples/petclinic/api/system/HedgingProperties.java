@@ -0,0 +1,41 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for hedging idempotent reads. A hedge is sent once the primary call has been
+ * outstanding longer than the service's {@code percentile} latency over the last {@code window},
+ * clamped to {@code [minDelay, maxDelay]}; {@code maxDelay} also applies until
+ * {@code minSamples} calls have been measured.
+ * <p>
+ * Every call earns {@code budgetPercent}/100 of a hedge and each hedge spends one, up to
+ * {@code maxBudget} saved hedges, so hedges stay a bounded fraction of traffic under overload.
+ * <p>
+ * Off by default: hedges add load to the services they are meant to help, so enable it only for
+ * deployments whose tail latency has been measured to benefit.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    private boolean enabled;
+
+    private double percentile = 0.95;
+
+    private Duration minDelay = Duration.ofMillis(20);
+
+    private Duration maxDelay = Duration.ofMillis(500);
+
+    private int minSamples = 50;
+
+    private Duration window = Duration.ofSeconds(30);
+
+    private double budgetPercent = 10;
+
+    private int maxBudget = 10;
+}
@@ -0,0 +1,23 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for deduplicating writes by their {@code Idempotency-Key} header. A completed result is
+ * replayed for {@code ttl}, and at most {@code maxEntries} keys are remembered.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private int maxEntries = 10_000;
+}
@@ -0,0 +1,25 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Bounds for the last-known-good responses served while a circuit breaker is open.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.last-known-good")
+public class LastKnownGoodProperties {
+
+    private boolean enabled = true;
+
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    private int maxEntries = 10_000;
+
+    private Duration maxAge = Duration.ofHours(1);
+}
@@ -0,0 +1,28 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for shedding synthetic API requests while the gateway is overloaded, that is while the
+ * event loops run more than {@code maxLag} behind every {@code probeInterval}, or {@code maxInFlight}
+ * requests are being handled.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.load-shedding")
+public class LoadSheddingProperties {
+
+    private boolean enabled = true;
+
+    private Duration probeInterval = Duration.ofMillis(100);
+
+    private Duration maxLag = Duration.ofMillis(200);
+
+    private int maxInFlight = 500;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for resolving many owners in one request. Requests for more than {@code maxOwners}
+ * owners are rejected, and at most {@code concurrency} visits-service lookups run at once.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.owner-batch")
+public class OwnerBatchProperties {
+
+    private int maxOwners = 100;
+
+    private int concurrency = 4;
+}
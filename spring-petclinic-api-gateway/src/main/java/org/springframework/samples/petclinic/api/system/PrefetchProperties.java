@@ -0,0 +1,30 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Settings for prefetching per-pet data once an owner has been loaded. At most {@code ownersPerSecond}
+ * owners are prefetched, results are kept for {@code ttl}, and for at most {@code maxOwners} owners.
+ * {@code resources} names what is prefetched: pet, visits, pet-insurance and nutrition.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.prefetch")
+public class PrefetchProperties {
+
+    private boolean enabled = true;
+
+    private Duration ttl = Duration.ofSeconds(10);
+
+    private int maxOwners = 1000;
+
+    private int ownersPerSecond = 20;
+
+    private Set<String> resources = new LinkedHashSet<>();
+}
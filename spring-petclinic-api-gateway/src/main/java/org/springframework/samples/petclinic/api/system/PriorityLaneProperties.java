@@ -0,0 +1,61 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.samples.petclinic.api.application.RequestPriority;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Settings for the priority lanes in front of every downstream service. The lanes of a service
+ * share {@code maxConcurrency} calls in flight, lowered to the service's adaptive concurrency
+ * limit and bulkhead size; each lane takes at most its own {@code maxConcurrency} and
+ * {@code maxShare} of them and queues up to {@code maxQueue} calls for at most {@code maxWait}. Clients whose User-Agent starts with one of {@code syntheticUserAgents} are
+ * synthetic traffic.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.priority-lanes")
+public class PriorityLaneProperties {
+
+    private boolean enabled = true;
+
+    private int maxConcurrency = 100;
+
+    private Duration maxWait = Duration.ofSeconds(1);
+
+    private Set<String> syntheticUserAgents = new LinkedHashSet<>();
+
+    private Lane interactive = new Lane(100, 200, 1.0);
+
+    private Lane synthetic = new Lane(20, 50, 0.5);
+
+    public Lane laneFor(RequestPriority priority) {
+        return priority == RequestPriority.SYNTHETIC ? synthetic : interactive;
+    }
+
+    @Data
+    public static class Lane {
+
+        private int maxConcurrency;
+
+        private int maxQueue;
+
+        /**
+         * Fraction of the service's limit the lane may take, between 0 and 1.
+         */
+        private double maxShare = 1.0;
+
+        public Lane() {
+        }
+
+        Lane(int maxConcurrency, int maxQueue, double maxShare) {
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueue = maxQueue;
+            this.maxShare = maxShare;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-gateway cache of rarely changing reference data (pet types, vets, insurances).
+ * Entries older than {@code refreshAhead} of their ttl are reloaded in the background while the
+ * cached copy keeps being served.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.reference-cache")
+public class ReferenceCacheProperties {
+
+    private boolean enabled = true;
+
+    private Duration ttl = Duration.ofMinutes(5);
+
+    private double refreshAhead = 0.8;
+
+    private int maxEntries = 64;
+}
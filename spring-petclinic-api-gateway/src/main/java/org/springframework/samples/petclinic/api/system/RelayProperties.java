@@ -0,0 +1,22 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Pass-through endpoints whose downstream response body is relayed to the client as is, instead
+ * of being decoded into DTOs and encoded again. Known endpoints are {@code owners},
+ * {@code billings}, {@code billing-summary} and {@code payments}. Relayed billings carry the billing
+ * service's strong ETag and skip the gateway's weak ETags and validator cache.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.relay")
+public class RelayProperties {
+
+    private Set<String> endpoints = new LinkedHashSet<>();
+}
@@ -0,0 +1,25 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the per-route latency histograms. Percentiles cover the last {@code window},
+ * which slides forward in {@code slices} steps. The coordinated-omission correction assumes
+ * requests arrive every {@code expectedInterval}, and is only reported when that is set: the mean
+ * interval of the measured requests would hide the very gaps the correction is meant to fill.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.route-latency")
+public class RouteLatencyProperties {
+
+    private Duration window = Duration.ofMinutes(1);
+
+    private int slices = 6;
+
+    private Duration expectedInterval;
+}
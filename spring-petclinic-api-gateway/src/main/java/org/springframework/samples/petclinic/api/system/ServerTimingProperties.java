@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the {@code Server-Timing} header on gateway API responses. {@code sampleRate} is
+ * the fraction of requests, between 0 and 1, whose downstream calls are timed.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.server-timing")
+public class ServerTimingProperties {
+
+    private boolean enabled = true;
+
+    private double sampleRate = 1.0;
+}
@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for serving fingerprinted static assets. Their content never changes under a given
+ * name, so browsers may keep them for {@code maxAge} without revalidating.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.static-assets")
+public class StaticAssetProperties {
+
+    private Duration maxAge = Duration.ofDays(365);
+}
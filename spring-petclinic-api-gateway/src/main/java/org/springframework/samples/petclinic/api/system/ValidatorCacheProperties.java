@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for revalidating cached list responses with conditional requests. Only responses
+ * carrying an ETag or Last-Modified are kept, for at most {@code maxEntries} URIs.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.validator-cache")
+public class ValidatorCacheProperties {
+
+    private boolean enabled = true;
+
+    private int maxEntries = 100;
+}
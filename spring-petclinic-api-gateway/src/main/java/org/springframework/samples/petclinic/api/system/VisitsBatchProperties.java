@@ -0,0 +1,24 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.system;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for collecting concurrent visit lookups into a single visits-service call.
+ * A batch is sent when the window elapses or when it holds {@code maxIds} pet ids,
+ * whichever comes first.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.visits-batch")
+public class VisitsBatchProperties {
+
+    private boolean enabled = true;
+
+    private Duration window = Duration.ofMillis(2);
+
+    private int maxIds = 100;
+}
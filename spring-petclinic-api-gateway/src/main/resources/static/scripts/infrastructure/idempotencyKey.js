@@ -0,0 +1,12 @@
+'use strict';
+
+/**
+ * Keys for the Idempotency-Key header. A form takes a key when it opens and sends it with each
+ * submit, so a double click or a retried POST is written only once by the gateway.
+ */
+angular.module('infrastructure')
+    .factory('idempotencyKey', function () {
+        return function () {
+            return Date.now().toString(36) + '-' + Math.random().toString(36).substring(2);
+        };
+    });
@@ -1,10 +1,11 @@
 'use strict';
 
 angular.module('ownerForm')
-    .controller('OwnerFormController', ["$http", '$state', '$stateParams', function ($http, $state, $stateParams) {
+    .controller('OwnerFormController', ["$http", '$state', '$stateParams', 'idempotencyKey', function ($http, $state, $stateParams, idempotencyKey) {
         var self = this;
 
         var ownerId = $stateParams.ownerId || 0;
+        var submitKey = idempotencyKey();
 
         if (!ownerId) {
             self.owner = {};
@@ -22,7 +23,7 @@ angular.module('ownerForm')
                     $state.go('ownerDetails', {ownerId: ownerId});
                 });
             } else {
-                $http.post('api/customer/owners', self.owner).then(function () {
+                $http.post('api/customer/owners', self.owner, {headers: {'Idempotency-Key': submitKey}}).then(function () {
                     $state.go('owners');
                 });
             }
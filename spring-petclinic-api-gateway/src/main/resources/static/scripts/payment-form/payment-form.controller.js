@@ -5,11 +5,13 @@ angular.module("paymentForm").controller("paymentFormController", [
   "$state",
   "$stateParams",
   "$filter",
-  function ($http, $state, $stateParams, $filter) {
+  "idempotencyKey",
+  function ($http, $state, $stateParams, $filter, idempotencyKey) {
     let self = this;
     let petId = $stateParams.petId || 0;
     let ownerId = $stateParams.ownerId || 0;
     let paymentId = $stateParams.paymentId || undefined;
+    let submitKey = idempotencyKey();
 
     if (paymentId !== undefined) {
       let url = `api/payments/owners/${ownerId}/pets/${petId}/${paymentId}`;
@@ -41,9 +43,11 @@ angular.module("paymentForm").controller("paymentFormController", [
         };
       }
 
-      $http.post(url, data).then(function () {
-        $state.go("petEdit", { ownerId: ownerId, petId: petId });
-      });
+      $http
+        .post(url, data, { headers: { "Idempotency-Key": submitKey } })
+        .then(function () {
+          $state.go("petEdit", { ownerId: ownerId, petId: petId });
+        });
     };
   },
 ]);
@@ -4,10 +4,12 @@ angular.module("petForm").controller("PetFormController", [
   "$http",
   "$state",
   "$stateParams",
-  function ($http, $state, $stateParams) {
+  "idempotencyKey",
+  function ($http, $state, $stateParams, idempotencyKey) {
     let self = this;
     let ownerId = $stateParams.ownerId || 0;
     self.ownerId = ownerId;
+    let submitKey = idempotencyKey();
 
     $http
       .get("api/customer/petTypes")
@@ -83,7 +85,9 @@ angular.module("petForm").controller("PetFormController", [
       if (id) {
         req = $http.put("api/customer/owners/" + ownerId + "/pets/" + id, data);
       } else {
-        req = $http.post("api/customer/owners/" + ownerId + "/pets", data);
+        req = $http.post("api/customer/owners/" + ownerId + "/pets", data, {
+          headers: { "Idempotency-Key": submitKey },
+        });
       }
 
       req.then(function (response) {
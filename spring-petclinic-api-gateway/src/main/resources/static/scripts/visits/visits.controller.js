@@ -1,12 +1,13 @@
 'use strict';
 
 angular.module('visits')
-    .controller('VisitsController', ['$http', '$state', '$stateParams', '$filter', function ($http, $state, $stateParams, $filter) {
+    .controller('VisitsController', ['$http', '$state', '$stateParams', '$filter', 'idempotencyKey', function ($http, $state, $stateParams, $filter, idempotencyKey) {
         var self = this;
         var petId = $stateParams.petId || 0;
         var url = "api/visit/owners/" + ($stateParams.ownerId || 0) + "/pets/" + petId + "/visits";
         self.date = new Date();
         self.desc = "";
+        var submitKey = idempotencyKey();
 
         $http.get(url).then(function (resp) {
             self.visits = resp.data;
@@ -18,7 +19,7 @@ angular.module('visits')
                 description: self.desc
             };
 
-            $http.post(url, data).then(function () {
+            $http.post(url, data, {headers: {'Idempotency-Key': submitKey}}).then(function () {
                 $state.go('ownerDetails', { ownerId: $stateParams.ownerId });
             });
         };
@@ -0,0 +1,81 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.api.system.ConcurrencyLimitProperties;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://customers-service/owners")).build();
+
+    @Test
+    void rejectsCallsOverTheLimit() {
+        properties.setInitialLimit(2);
+        properties.setMinLimit(1);
+        ExchangeFilterFunction filter = new AdaptiveConcurrencyFilterFactory(properties, meterRegistry).create("customers-service");
+
+        Disposable first = filter.filter(request, req -> Mono.never()).subscribe();
+        Disposable second = filter.filter(request, req -> Mono.never()).subscribe();
+
+        Mono<ClientResponse> third = filter.filter(request, req -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+
+        assertThrows(ConcurrencyLimitExceededException.class, third::block);
+        assertEquals(2.0, meterRegistry.get("gateway.client.concurrency.in-flight").gauge().value());
+        assertEquals(1.0, meterRegistry.get("gateway.client.rejected").tag("reason", "concurrency-limit").counter().count());
+
+        first.dispose();
+        second.dispose();
+        assertEquals(0.0, meterRegistry.get("gateway.client.concurrency.in-flight").gauge().value());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(properties);
+
+        saturate(limit, 10, 200);
+        int steady = limit.getLimit();
+        saturate(limit, 100, 20);
+
+        assertTrue(steady > properties.getInitialLimit(), "limit should grow while latency holds, was " + steady);
+        assertTrue(limit.getLimit() < steady / 2, "limit should shrink as latency rises, was " + limit.getLimit());
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        GradientLimit limit = new GradientLimit(properties);
+
+        saturate(limit, 10, 2000);
+        assertEquals(properties.getMaxLimit(), limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limit.onTimeout();
+        }
+        assertEquals(properties.getMinLimit(), limit.getLimit());
+    }
+
+    private static void saturate(GradientLimit limit, long rttMillis, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(rttMillis), limit.getLimit());
+        }
+    }
+}
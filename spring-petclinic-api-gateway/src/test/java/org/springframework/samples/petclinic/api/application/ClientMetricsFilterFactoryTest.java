@@ -0,0 +1,111 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.samples.petclinic.api.system.ClientMetricsProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientMetricsFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final WebClient webClient = WebClient.builder()
+        .filter(new ClientMetricsFilterFactory(new ClientMetricsProperties(), meterRegistry).create("insurance-service"))
+        .build();
+
+    @AfterEach
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void tagsCallsWithUriTemplate() {
+        for (int petId = 1; petId <= 3; petId++) {
+            server.enqueue(new MockResponse().setBody("{\"id\":1}"));
+            webClient.get()
+                .uri(server.url("/pet-insurances/").toString() + "{petId}/", petId)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+        }
+
+        Timer timer = meterRegistry.get("gateway.client.requests")
+            .tags("service", "insurance-service", "method", "GET", "uri", "/pet-insurances/{petId}/",
+                "status", "200", "outcome", "SUCCESS")
+            .timer();
+        assertEquals(3, timer.count());
+        assertEquals(1, meterRegistry.get("gateway.client.requests").timers().size());
+        CountAtBucket[] buckets = timer.takeSnapshot().histogramCounts();
+        assertEquals(7, buckets.length);
+        assertEquals(3, buckets[buckets.length - 1].count());
+        assertEquals(24, meterRegistry.get("gateway.client.response.size").summary().totalAmount());
+    }
+
+    @Test
+    void recordsRequestSizeAndServerErrors() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        webClient.put()
+            .uri(server.url("/pet-insurances/{petId}/").toString(), 7)
+            .bodyValue("{\"insurance_name\":\"basic\"}")
+            .exchangeToMono(response -> response.releaseBody())
+            .block();
+
+        assertTrue(server.takeRequest(1, TimeUnit.SECONDS).getBody().size() > 0);
+        assertEquals(26, meterRegistry.get("gateway.client.request.size").tag("method", "PUT").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("gateway.client.requests")
+            .tags("status", "503", "outcome", "SERVER_ERROR").timer().count());
+    }
+
+    @Test
+    void recordsStatusOfServerErrorsFailedByResilienceFilter() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        WebClient resilientClient = WebClient.builder()
+            .filter(new ClientMetricsFilterFactory(new ClientMetricsProperties(), meterRegistry).create("insurance-service"))
+            .filter(new ResilienceFilterFactory(new ReactiveResilience4JCircuitBreakerFactory(),
+                BulkheadRegistry.ofDefaults(), meterRegistry).create("insurance-service"))
+            .build();
+
+        Mono<String> call = resilientClient.get()
+            .uri(server.url("/insurances/").toString())
+            .retrieve()
+            .bodyToMono(String.class);
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class, call::block);
+        assertEquals(1, meterRegistry.get("gateway.client.requests")
+            .tags("status", "503", "outcome", "SERVER_ERROR").timer().count());
+    }
+
+    @Test
+    void stripsSchemeHostAndQueryFromTemplate() {
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        webClient.get()
+            .uri(server.url("/").toString() + "pets/visits?petId={petId}", "1,2")
+            .retrieve()
+            .bodyToMono(String.class)
+            .block();
+
+        assertEquals(1, meterRegistry.get("gateway.client.requests").tag("uri", "/pets/visits").timer().count());
+    }
+}
@@ -0,0 +1,71 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.api.system.ClientPoolProperties;
+import org.springframework.samples.petclinic.api.system.DeadlineProperties;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExchangeFilterFunction filter = new DeadlineFilterFactory(
+        new DeadlineProperties(), new ClientPoolProperties(), meterRegistry).create("customers-service");
+
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://customers-service/owners")).build();
+
+    private final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+
+    @Test
+    void sendsRemainingBudget() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(1));
+
+        filter.filter(request, this::respond)
+            .contextWrite(context -> context.put(RequestDeadline.class, deadline))
+            .block();
+
+        long budget = Long.parseLong(sent.get().headers().getFirst(RequestDeadline.HEADER));
+        assertTrue(budget > 0 && budget <= 1000, "budget was " + budget);
+    }
+
+    @Test
+    void usesResponseTimeoutOutsideOfRequest() {
+        filter.filter(request, this::respond).block();
+
+        assertEquals("4000", sent.get().headers().getFirst(RequestDeadline.HEADER));
+    }
+
+    @Test
+    void skipsCallOnceDeadlineHasPassed() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(-1));
+
+        Mono<ClientResponse> call = filter.filter(request, this::respond)
+            .contextWrite(context -> context.put(RequestDeadline.class, deadline));
+
+        assertThrows(DeadlineExceededException.class, call::block);
+        assertNull(sent.get());
+        assertEquals(1.0, meterRegistry.get("gateway.client.rejected").tag("reason", "deadline").counter().count());
+    }
+
+    private Mono<ClientResponse> respond(ClientRequest request) {
+        sent.set(request);
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    }
+}
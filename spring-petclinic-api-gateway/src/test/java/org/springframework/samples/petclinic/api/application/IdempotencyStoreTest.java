@@ -0,0 +1,104 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.api.system.IdempotencyProperties;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+
+    private final IdempotencyStore store = new IdempotencyStore(properties, meterRegistry);
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void concurrentDuplicateWaitsForFirstWrite() {
+        Sinks.One<Integer> response = Sinks.one();
+        AtomicReference<Integer> duplicateResult = new AtomicReference<>();
+
+        store.execute("payment", "k1", "body", () -> {
+            writes.incrementAndGet();
+            return response.asMono();
+        }).subscribe();
+        store.execute("payment", "k1", "body", () -> Mono.just(writes.incrementAndGet()))
+            .subscribe(duplicateResult::set);
+        response.tryEmitValue(42);
+
+        assertEquals(42, duplicateResult.get());
+        assertEquals(1, writes.get());
+        assertEquals(1, meterRegistry.get("gateway.idempotency.requests").tag("result", "joined").counter().count());
+    }
+
+    @Test
+    void laterDuplicateGetsStoredResult() {
+        assertEquals(1, store.execute("owner", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block());
+        assertEquals(1, store.execute("owner", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block());
+
+        assertEquals(1, writes.get());
+        assertEquals(1, meterRegistry.get("gateway.idempotency.requests").tag("result", "replayed").counter().count());
+    }
+
+    @Test
+    void writesWithoutKeyAlwaysRun() {
+        store.execute("owner", null, "body", () -> Mono.just(writes.incrementAndGet())).block();
+        store.execute("owner", null, "body", () -> Mono.just(writes.incrementAndGet())).block();
+
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    void failedWriteCanBeRetried() {
+        Mono<Integer> failed = store.execute("visit", "k1", "body", () -> Mono.error(new IllegalStateException()));
+        assertThrows(IllegalStateException.class, failed::block);
+
+        assertEquals(1, store.execute("visit", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block());
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentRequest() {
+        store.execute("pet", "k1", "Leo", () -> Mono.just(writes.incrementAndGet())).block();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+            () -> store.execute("pet", "k1", "Basil", () -> Mono.just(writes.incrementAndGet())).block());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ex.getStatus());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void expiredResultIsNotReplayed() {
+        properties.setTtl(Duration.ZERO);
+
+        store.execute("owner", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block();
+        store.execute("owner", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block();
+
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    void dropsOldestKeysBeyondMaxEntries() {
+        properties.setMaxEntries(1);
+
+        store.execute("owner", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block();
+        store.execute("owner", "k2", "body", () -> Mono.just(writes.incrementAndGet())).block();
+        store.execute("owner", "k1", "body", () -> Mono.just(writes.incrementAndGet())).block();
+
+        assertEquals(3, writes.get());
+        assertEquals(1, meterRegistry.get("gateway.idempotency.size").gauge().value());
+    }
+}
@@ -0,0 +1,129 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.OwnerBatchProperties;
+import org.springframework.samples.petclinic.api.system.VisitsBatchProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class OwnerBatchServiceTest {
+
+    private final CustomersServiceClient customersServiceClient = Mockito.mock(CustomersServiceClient.class);
+
+    private final VisitsBatcher visitsBatcher = Mockito.mock(VisitsBatcher.class);
+
+    private final OwnerBatchProperties properties = new OwnerBatchProperties();
+
+    private final VisitsBatchProperties visitsBatchProperties = new VisitsBatchProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final OwnerBatchService service = new OwnerBatchService(customersServiceClient, visitsBatcher,
+        properties, visitsBatchProperties, meterRegistry);
+
+    @Test
+    void fetchesOwnersOnceAndKeepsRequestedOrder() {
+        Mockito.when(customersServiceClient.getOwners(Arrays.asList(3, 1, 2)))
+            .thenReturn(Flux.just(owner(1, 10), owner(2, 20), owner(3, 30)));
+        Mockito.when(visitsBatcher.getVisitsForPets(anyList())).thenAnswer(invocation -> {
+            List<Integer> petIds = invocation.getArgument(0);
+            return Mono.just(visits(petIds));
+        });
+
+        List<OwnerDetails> owners = service.getOwners(Arrays.asList(3, 1, 3, 2), true).collectList().block();
+
+        assertEquals(Arrays.asList(3, 1, 2), owners.stream().map(OwnerDetails::getId).collect(Collectors.toList()));
+        assertEquals(30, owners.get(0).getPets().get(0).getVisits().get(0).getPetId());
+        Mockito.verify(customersServiceClient).getOwners(Arrays.asList(3, 1, 2));
+        Mockito.verify(visitsBatcher).getVisitsForPets(Arrays.asList(30, 10, 20));
+    }
+
+    @Test
+    void splitsVisitLookupsAtMaxIds() {
+        visitsBatchProperties.setMaxIds(2);
+        Mockito.when(customersServiceClient.getOwners(Arrays.asList(1, 2, 3)))
+            .thenReturn(Flux.just(owner(1, 10), owner(2, 20), owner(3, 30)));
+        Mockito.when(visitsBatcher.getVisitsForPets(anyList())).thenReturn(Mono.just(new Visits()));
+
+        assertEquals(3, service.getOwners(Arrays.asList(1, 2, 3), true).count().block());
+
+        Mockito.verify(visitsBatcher).getVisitsForPets(Arrays.asList(10, 20));
+        Mockito.verify(visitsBatcher).getVisitsForPets(Collections.singletonList(30));
+    }
+
+    @Test
+    void emitsInOrderWhenLaterChunksFinishFirst() {
+        visitsBatchProperties.setMaxIds(1);
+        Mockito.when(customersServiceClient.getOwners(Arrays.asList(1, 2)))
+            .thenReturn(Flux.just(owner(1, 10), owner(2, 20)));
+        Mockito.when(visitsBatcher.getVisitsForPets(Collections.singletonList(10)))
+            .thenReturn(Mono.just(new Visits()).delayElement(Duration.ofMillis(100)));
+        Mockito.when(visitsBatcher.getVisitsForPets(Collections.singletonList(20)))
+            .thenReturn(Mono.just(new Visits()));
+
+        List<OwnerDetails> owners = service.getOwners(Arrays.asList(1, 2), true).collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(1, owners.get(0).getId());
+        assertEquals(2, owners.get(1).getId());
+    }
+
+    @Test
+    void skipsVisitsWhenNotNeeded() {
+        Mockito.when(customersServiceClient.getOwners(Arrays.asList(2, 1)))
+            .thenReturn(Flux.just(owner(1, 10), owner(2, 20)));
+
+        List<OwnerDetails> owners = service.getOwners(Arrays.asList(2, 1), false).collectList().block();
+
+        assertEquals(2, owners.get(0).getId());
+        Mockito.verifyNoInteractions(visitsBatcher);
+    }
+
+    @Test
+    void returnsOwnersWithoutVisitsWhenLookupFails() {
+        Mockito.when(customersServiceClient.getOwners(Collections.singletonList(1)))
+            .thenReturn(Flux.just(owner(1, 10)));
+        Mockito.when(visitsBatcher.getVisitsForPets(anyList())).thenReturn(Mono.error(new IllegalStateException()));
+
+        OwnerDetails owner = service.getOwners(Collections.singletonList(1), true).blockFirst();
+
+        assertTrue(owner.getPets().get(0).getVisits().isEmpty());
+        assertEquals(1, meterRegistry.get("gateway.owner-batch.visits.failures").counter().count());
+    }
+
+    private static OwnerDetails owner(int id, int petId) {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setId(id);
+        PetDetails pet = new PetDetails();
+        pet.setId(petId);
+        owner.getPets().add(pet);
+        return owner;
+    }
+
+    private static Visits visits(List<Integer> petIds) {
+        Visits visits = new Visits();
+        for (Integer petId : petIds) {
+            VisitDetails visit = new VisitDetails();
+            visit.setPetId(petId);
+            visits.getItems().add(visit);
+        }
+        return visits;
+    }
+}
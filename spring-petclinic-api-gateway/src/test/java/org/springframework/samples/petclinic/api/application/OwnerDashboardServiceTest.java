@@ -0,0 +1,147 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.api.dto.DashboardSection;
+import org.springframework.samples.petclinic.api.dto.OwnerDashboard;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PaymentDetail;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.PetInsurance;
+import org.springframework.samples.petclinic.api.dto.PetNutrition;
+import org.springframework.samples.petclinic.api.dto.PetType;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.DashboardProperties;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class OwnerDashboardServiceTest {
+
+    private final CustomersServiceClient customersServiceClient = Mockito.mock(CustomersServiceClient.class);
+
+    private final VisitsBatcher visitsBatcher = Mockito.mock(VisitsBatcher.class);
+
+    private final InsuranceServiceClient insuranceServiceClient = Mockito.mock(InsuranceServiceClient.class);
+
+    private final PaymentClient paymentClient = Mockito.mock(PaymentClient.class);
+
+    private final NutritionServiceClient nutritionServiceClient = Mockito.mock(NutritionServiceClient.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DashboardProperties properties = new DashboardProperties();
+
+    private OwnerDashboardService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setSectionTimeout(Duration.ofMillis(200));
+        service = new OwnerDashboardService(customersServiceClient, visitsBatcher, insuranceServiceClient,
+            paymentClient, nutritionServiceClient, new RequestCoalescer(meterRegistry), properties, meterRegistry);
+        Mockito.when(customersServiceClient.getOwner(1)).thenReturn(Mono.just(owner()));
+        Mockito.when(visitsBatcher.getVisitsForPets(Mockito.anyList())).thenReturn(Mono.just(new Visits()));
+        Mockito.when(insuranceServiceClient.getPetInsurance(anyInt())).thenReturn(Mono.just(new PetInsurance()));
+        Mockito.when(paymentClient.getPayments(Mockito.eq(1), anyInt())).thenReturn(Flux.just(new PaymentDetail()));
+        Mockito.when(nutritionServiceClient.getPetNutrition(anyString())).thenReturn(Mono.just(new PetNutrition()));
+    }
+
+    @Test
+    void assemblesAllSections() {
+        OwnerDashboard dashboard = service.getDashboard(1).block();
+
+        assertEquals(1, dashboard.getOwner().getId());
+        assertEquals(DashboardSection.Status.OK, dashboard.getVisits().getStatus());
+        assertEquals(2, dashboard.getInsurances().size());
+        assertEquals(1, dashboard.getPayments().get(3).getData().size());
+        // Both pets are cats, so nutrition facts are fetched once
+        assertEquals(1, dashboard.getNutrition().size());
+        Mockito.verify(nutritionServiceClient).getPetNutrition("cat");
+        assertFalse(dashboard.isPartial());
+    }
+
+    @Test
+    void marksFailedAndSlowSectionsAsPartial() {
+        Mockito.when(insuranceServiceClient.getPetInsurance(3)).thenReturn(Mono.error(new IllegalStateException()));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.never());
+
+        OwnerDashboard dashboard = service.getDashboard(1).block(Duration.ofSeconds(5));
+
+        assertEquals(DashboardSection.Status.FAILED, dashboard.getInsurances().get(3).getStatus());
+        assertEquals(DashboardSection.Status.OK, dashboard.getInsurances().get(4).getStatus());
+        assertEquals(DashboardSection.Status.TIMED_OUT, dashboard.getNutrition().get("cat").getStatus());
+        assertTrue(dashboard.isPartial());
+        assertEquals(1, meterRegistry.get("gateway.dashboard.sections")
+            .tags("section", "nutrition", "status", "TIMED_OUT").counter().count());
+    }
+
+    @Test
+    void treatsMissingInsuranceAsEmptySection() {
+        Mockito.when(insuranceServiceClient.getPetInsurance(3)).thenReturn(Mono.error(
+            WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null)));
+
+        OwnerDashboard dashboard = service.getDashboard(1).block();
+
+        assertEquals(DashboardSection.Status.OK, dashboard.getInsurances().get(3).getStatus());
+        assertNull(dashboard.getInsurances().get(3).getData());
+        assertFalse(dashboard.isPartial());
+    }
+
+    @Test
+    void boundsConcurrentCalls() {
+        properties.setParallelism(2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Mockito.when(paymentClient.getPayments(Mockito.eq(1), anyInt())).thenAnswer(invocation -> Flux.<PaymentDetail>empty()
+            .delaySubscription(Duration.ofMillis(20))
+            .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+            .doOnTerminate(inFlight::decrementAndGet));
+        Mockito.when(insuranceServiceClient.getPetInsurance(anyInt())).thenAnswer(invocation -> Mono.<PetInsurance>empty()
+            .delaySubscription(Duration.ofMillis(20))
+            .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+            .doOnTerminate(inFlight::decrementAndGet));
+
+        service.getDashboard(1).block(Duration.ofSeconds(5));
+
+        assertTrue(maxInFlight.get() <= 2, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void failsWhenOwnerCannotBeLoaded() {
+        Mockito.when(customersServiceClient.getOwner(2)).thenReturn(Mono.error(new IllegalStateException()));
+
+        assertThrows(IllegalStateException.class, service.getDashboard(2)::block);
+        Mockito.verifyNoInteractions(visitsBatcher);
+    }
+
+    private static OwnerDetails owner() {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setId(1);
+        for (int petId : Arrays.asList(3, 4)) {
+            PetDetails pet = new PetDetails();
+            pet.setId(petId);
+            PetType type = new PetType();
+            type.setName("cat");
+            pet.setType(type);
+            owner.getPets().add(pet);
+        }
+        return owner;
+    }
+}
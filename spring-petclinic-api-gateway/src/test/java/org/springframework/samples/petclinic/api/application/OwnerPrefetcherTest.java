@@ -0,0 +1,196 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.PetInsurance;
+import org.springframework.samples.petclinic.api.dto.PetNutrition;
+import org.springframework.samples.petclinic.api.dto.PetType;
+import org.springframework.samples.petclinic.api.system.PrefetchProperties;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OwnerPrefetcherTest {
+
+    private final CustomersServiceClient customersServiceClient = Mockito.mock(CustomersServiceClient.class);
+
+    private final VisitsServiceClient visitsServiceClient = Mockito.mock(VisitsServiceClient.class);
+
+    private final InsuranceServiceClient insuranceServiceClient = Mockito.mock(InsuranceServiceClient.class);
+
+    private final NutritionServiceClient nutritionServiceClient = Mockito.mock(NutritionServiceClient.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PrefetchProperties properties = new PrefetchProperties();
+
+    private OwnerPrefetcher prefetcher() {
+        properties.getResources().addAll(Arrays.asList(OwnerPrefetcher.PET_INSURANCE, OwnerPrefetcher.NUTRITION));
+        return new OwnerPrefetcher(customersServiceClient, visitsServiceClient, insuranceServiceClient,
+            nutritionServiceClient, properties, meterRegistry);
+    }
+
+    @Test
+    void servesPrefetchedValues() {
+        PetInsurance insurance = new PetInsurance();
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(Mono.just(insurance));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+
+        prefetcher.prefetch(owner(1, 7));
+        PetInsurance served = prefetcher.get(OwnerPrefetcher.PET_INSURANCE, 7, PetInsurance.class,
+            () -> Mono.error(new AssertionError("not prefetched"))).block();
+
+        assertSame(insurance, served);
+        Mockito.verify(insuranceServiceClient).getPetInsurance(7);
+        Mockito.verifyNoInteractions(customersServiceClient, visitsServiceClient);
+        assertEquals(1, lookups(OwnerPrefetcher.PET_INSURANCE, "hit"));
+    }
+
+    @Test
+    void callsThroughWhilePrefetchIsInFlight() {
+        Sinks.One<PetInsurance> response = Sinks.one();
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(response.asMono());
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+        PetInsurance own = new PetInsurance();
+
+        prefetcher.prefetch(owner(1, 7));
+        PetInsurance served = prefetcher.get(OwnerPrefetcher.PET_INSURANCE, 7, PetInsurance.class,
+            () -> Mono.just(own)).block();
+        PetInsurance prefetched = new PetInsurance();
+        response.tryEmitValue(prefetched);
+
+        assertSame(own, served);
+        assertSame(prefetched, prefetcher.get(OwnerPrefetcher.PET_INSURANCE, 7, PetInsurance.class,
+            () -> Mono.error(new AssertionError("not prefetched"))).block());
+    }
+
+    @Test
+    void prefetchesInTheSyntheticLane() {
+        AtomicReference<RequestPriority> priority = new AtomicReference<>();
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(Mono.deferContextual(context -> {
+            priority.set(context.get(RequestPriority.class));
+            return Mono.just(new PetInsurance());
+        }));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+
+        prefetcher().prefetch(owner(1, 7));
+
+        assertEquals(RequestPriority.SYNTHETIC, priority.get());
+    }
+
+    @Test
+    void callsThroughWhenPrefetchFailed() {
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(Mono.error(new IllegalStateException()));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+        PetInsurance insurance = new PetInsurance();
+
+        prefetcher.prefetch(owner(1, 7));
+
+        assertSame(insurance, prefetcher.get(OwnerPrefetcher.PET_INSURANCE, 7, PetInsurance.class,
+            () -> Mono.just(insurance)).block());
+        assertEquals(1, meterRegistry.get("gateway.prefetch.failures").counter().count());
+    }
+
+    @Test
+    void callsThroughWhenNothingWasPrefetched() {
+        OwnerPrefetcher prefetcher = prefetcher();
+        PetInsurance insurance = new PetInsurance();
+
+        assertSame(insurance, prefetcher.get(OwnerPrefetcher.PET_INSURANCE, 7, PetInsurance.class,
+            () -> Mono.just(insurance)).block());
+        assertEquals(1, lookups(OwnerPrefetcher.PET_INSURANCE, "miss"));
+    }
+
+    @Test
+    void doesNotPrefetchTheSameOwnerTwiceWithinTtl() {
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(Mono.just(new PetInsurance()));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+
+        prefetcher.prefetch(owner(1, 7));
+        prefetcher.prefetch(owner(1, 7));
+
+        Mockito.verify(insuranceServiceClient).getPetInsurance(7);
+        assertEquals(1, meterRegistry.get("gateway.prefetch.owners").tag("result", "fresh").counter().count());
+    }
+
+    @Test
+    void limitsPrefetchRate() {
+        properties.setOwnersPerSecond(1);
+        Mockito.when(insuranceServiceClient.getPetInsurance(Mockito.anyInt())).thenReturn(Mono.just(new PetInsurance()));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+
+        prefetcher.prefetch(owner(1, 7));
+        prefetcher.prefetch(owner(2, 8));
+
+        Mockito.verify(insuranceServiceClient, Mockito.never()).getPetInsurance(8);
+        assertEquals(1, meterRegistry.get("gateway.prefetch.owners").tag("result", "rate-limited").counter().count());
+    }
+
+    @Test
+    void cancelsRunningCallsAndCountsUnreadValuesAsWasted() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(Mono.<PetInsurance>never()
+            .doOnCancel(() -> cancelled.set(true)));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+
+        prefetcher.prefetch(owner(1, 7));
+        prefetcher.cancel(1);
+
+        assertTrue(cancelled.get());
+        assertEquals(1, meterRegistry.get("gateway.prefetch.cancelled").counter().count());
+        assertEquals(1, meterRegistry.get("gateway.prefetch.wasted").tag("name", OwnerPrefetcher.NUTRITION).counter().count());
+    }
+
+    @Test
+    void dropsInvalidatedAndExpiredValues() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(50));
+        Mockito.when(insuranceServiceClient.getPetInsurance(7)).thenReturn(Mono.just(new PetInsurance()));
+        Mockito.when(nutritionServiceClient.getPetNutrition("cat")).thenReturn(Mono.just(new PetNutrition()));
+        OwnerPrefetcher prefetcher = prefetcher();
+
+        prefetcher.prefetch(owner(1, 7));
+        prefetcher.invalidate(OwnerPrefetcher.PET_INSURANCE, 7);
+        Thread.sleep(100);
+        prefetcher.get(OwnerPrefetcher.PET_INSURANCE, 7, PetInsurance.class, Mono::empty).block();
+        prefetcher.get(OwnerPrefetcher.NUTRITION, "cat", PetNutrition.class, Mono::empty).block();
+
+        assertEquals(2, lookups(OwnerPrefetcher.PET_INSURANCE, "miss") + lookups(OwnerPrefetcher.NUTRITION, "miss"));
+        assertEquals(2, meterRegistry.get("gateway.prefetch.wasted").counters().stream()
+            .mapToDouble(counter -> counter.count()).sum());
+    }
+
+    private double lookups(String name, String result) {
+        return meterRegistry.get("gateway.prefetch.lookups").tag("name", name).tag("result", result).counter().count();
+    }
+
+    private static OwnerDetails owner(int id, int petId) {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setId(id);
+        PetDetails pet = new PetDetails();
+        pet.setId(petId);
+        PetType type = new PetType();
+        type.setName("cat");
+        pet.setType(type);
+        owner.getPets().add(pet);
+        return owner;
+    }
+}
@@ -0,0 +1,162 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.samples.petclinic.api.system.ConcurrencyLimitProperties;
+import org.springframework.samples.petclinic.api.system.PriorityLaneProperties;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriorityLanesTest {
+
+    private final PriorityLaneProperties properties = new PriorityLaneProperties();
+
+    private final PriorityLanes lanes = new PriorityLanes(properties, () -> Integer.MAX_VALUE);
+
+    private final List<RequestPriority> started = new ArrayList<>();
+
+    @Test
+    void freedCapacityGoesToInteractiveCallsFirst() {
+        properties.setMaxConcurrency(1);
+        acquire(RequestPriority.INTERACTIVE);
+        acquire(RequestPriority.SYNTHETIC);
+        acquire(RequestPriority.INTERACTIVE);
+        assertEquals(1, lanes.queued(RequestPriority.SYNTHETIC));
+
+        lanes.release(RequestPriority.INTERACTIVE);
+        assertEquals(RequestPriority.INTERACTIVE, started.get(1));
+
+        lanes.release(RequestPriority.INTERACTIVE);
+        assertEquals(RequestPriority.SYNTHETIC, started.get(2));
+    }
+
+    @Test
+    void syntheticCallsStayWithinTheirQuota() {
+        properties.getSynthetic().setMaxConcurrency(1);
+        acquire(RequestPriority.SYNTHETIC);
+        acquire(RequestPriority.SYNTHETIC);
+        acquire(RequestPriority.INTERACTIVE);
+
+        assertEquals(1, lanes.inFlight(RequestPriority.SYNTHETIC));
+        assertEquals(1, lanes.queued(RequestPriority.SYNTHETIC));
+        assertEquals(1, lanes.inFlight(RequestPriority.INTERACTIVE));
+    }
+
+    @Test
+    void rejectsCallsBeyondTheQueue() {
+        properties.getSynthetic().setMaxConcurrency(1);
+        properties.getSynthetic().setMaxQueue(1);
+        acquire(RequestPriority.SYNTHETIC);
+        acquire(RequestPriority.SYNTHETIC);
+
+        assertThrows(PriorityLaneFullException.class,
+            () -> lanes.acquire("customers-service", RequestPriority.SYNTHETIC).block());
+    }
+
+    @Test
+    void raisedSharedCallMovesToTheHigherLane() {
+        properties.setMaxConcurrency(1);
+        acquire(RequestPriority.INTERACTIVE);
+        acquire(RequestPriority.SYNTHETIC);
+        SharedPriority shared = new SharedPriority(RequestPriority.SYNTHETIC);
+        List<RequestPriority> granted = new ArrayList<>();
+        lanes.acquire("customers-service", shared).subscribe(granted::add);
+
+        shared.join(RequestPriority.INTERACTIVE);
+        assertEquals(1, lanes.queued(RequestPriority.INTERACTIVE));
+        lanes.release(RequestPriority.INTERACTIVE);
+
+        assertEquals(Collections.singletonList(RequestPriority.INTERACTIVE), granted);
+        assertEquals(1, lanes.queued(RequestPriority.SYNTHETIC));
+    }
+
+    @Test
+    void cancelledCallLeavesTheQueue() {
+        properties.setMaxConcurrency(1);
+        acquire(RequestPriority.INTERACTIVE);
+        Disposable queued = acquire(RequestPriority.INTERACTIVE);
+
+        queued.dispose();
+        lanes.release(RequestPriority.INTERACTIVE);
+
+        assertEquals(0, lanes.queued(RequestPriority.INTERACTIVE));
+        assertEquals(0, lanes.inFlight(RequestPriority.INTERACTIVE));
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    void filterQueuesCallsByTheirRequestPriority() {
+        properties.setMaxConcurrency(1);
+        properties.setMaxWait(Duration.ofMillis(50));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExchangeFilterFunction filter = new PriorityLaneFilterFactory(properties,
+            new AdaptiveConcurrencyFilterFactory(new ConcurrencyLimitProperties(), meterRegistry),
+            BulkheadRegistry.ofDefaults(), meterRegistry).create("customers-service");
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://customers-service/owners")).build();
+
+        filter.filter(request, r -> Mono.never()).subscribe();
+        Mono<ClientResponse> synthetic = filter.filter(request, r -> Mono.empty())
+            .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC));
+
+        assertThrows(PriorityLaneFullException.class, synthetic::block);
+        assertEquals(1, meterRegistry.get("gateway.client.lanes.in-flight").tag("lane", "interactive").gauge().value());
+        assertEquals(1, meterRegistry.get("gateway.client.rejected").tag("reason", "priority-lane").counter().count());
+    }
+
+    @Test
+    void admitsInteractiveCallsWhileSyntheticCallsFillTheirLane() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitProperties limitProperties = new ConcurrencyLimitProperties();
+        limitProperties.setInitialLimit(4);
+        AdaptiveConcurrencyFilterFactory concurrencyLimits = new AdaptiveConcurrencyFilterFactory(limitProperties, meterRegistry);
+        ExchangeFilterFunction filter = new PriorityLaneFilterFactory(properties, concurrencyLimits,
+            BulkheadRegistry.ofDefaults(), meterRegistry).create("customers-service")
+            .andThen(concurrencyLimits.create("customers-service"));
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://customers-service/owners")).build();
+        ExchangeFunction exchange = r -> Mono.deferContextual(context -> {
+            started.add(context.getOrDefault(RequestPriority.class, RequestPriority.INTERACTIVE));
+            return Mono.never();
+        });
+
+        for (int i = 0; i < 4; i++) {
+            filter.filter(request, exchange)
+                .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC))
+                .subscribe();
+        }
+        Disposable first = filter.filter(request, exchange).subscribe();
+        filter.filter(request, exchange).subscribe();
+        filter.filter(request, exchange).subscribe();
+
+        assertEquals(Arrays.asList(RequestPriority.SYNTHETIC, RequestPriority.SYNTHETIC,
+            RequestPriority.INTERACTIVE, RequestPriority.INTERACTIVE), started);
+        assertEquals(2, meterRegistry.get("gateway.client.lanes.queued").tag("lane", "synthetic").gauge().value());
+        assertEquals(1, meterRegistry.get("gateway.client.lanes.queued").tag("lane", "interactive").gauge().value());
+        assertEquals(0, meterRegistry.get("gateway.client.rejected").tag("reason", "concurrency-limit").counter().count());
+
+        first.dispose();
+        assertEquals(RequestPriority.INTERACTIVE, started.get(4));
+        assertEquals(4, meterRegistry.get("gateway.client.concurrency.in-flight").gauge().value());
+    }
+
+    private Disposable acquire(RequestPriority priority) {
+        return lanes.acquire("customers-service", priority).subscribe(null, null, () -> started.add(priority));
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.api.dto.PetType;
+import org.springframework.samples.petclinic.api.system.ReferenceCacheProperties;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ReferenceDataCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReferenceCacheProperties properties = new ReferenceCacheProperties();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ReferenceDataCache cache() {
+        return new ReferenceDataCache(properties, new ObjectMapper(), new RequestCoalescer(meterRegistry), meterRegistry);
+    }
+
+    private Flux<PetType> petTypes() {
+        loads.incrementAndGet();
+        PetType cat = new PetType();
+        cat.setId("1");
+        cat.setName("cat");
+        return Flux.just(cat);
+    }
+
+    @Test
+    void servesSerializedBodyFromCache() {
+        ReferenceDataCache cache = cache();
+
+        cache.get("petTypes", this::petTypes).block();
+        byte[] body = cache.get("petTypes", this::petTypes).block();
+
+        assertEquals("[{\"id\":\"1\",\"name\":\"cat\"}]", new String(body, StandardCharsets.UTF_8));
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void keepsETagWithCachedBody() {
+        ReferenceDataCache cache = cache();
+
+        ReferenceDataCache.Json loaded = cache.getJson("petTypes", this::petTypes).block();
+        ReferenceDataCache.Json cached = cache.getJson("petTypes", this::petTypes).block();
+
+        assertSame(loaded.getBody(), cached.getBody());
+        assertSame(loaded.getETag(), cached.getETag());
+        assertEquals('"' + DigestUtils.md5DigestAsHex(loaded.getBody()) + '"', loaded.getETag());
+    }
+
+    @Test
+    void refreshesAheadOfExpiry() throws InterruptedException {
+        properties.setTtl(Duration.ofMinutes(1));
+        properties.setRefreshAhead(0);
+        ReferenceDataCache cache = cache();
+
+        cache.get("petTypes", this::petTypes).block();
+        Thread.sleep(1);
+        cache.get("petTypes", this::petTypes).block();
+
+        assertEquals(2, loads.get());
+        assertEquals(1, meterRegistry.get("cache.puts").tag("reason", "refresh").counter().count());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        properties.setMaxEntries(1);
+        ReferenceDataCache cache = cache();
+
+        cache.get("petTypes", this::petTypes).block();
+        cache.get("otherTypes", this::petTypes).block();
+        cache.get("petTypes", this::petTypes).block();
+
+        assertEquals(3, loads.get());
+        assertEquals(2, meterRegistry.get("cache.evictions").counter().count());
+    }
+}
@@ -0,0 +1,84 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+
+    @Test
+    void concurrentCallersShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        Mono<String> first = coalescer.coalesce("owner", 1, () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+        Mono<String> second = coalescer.coalesce("owner", 1, () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+        AtomicReference<String> secondResult = new AtomicReference<>();
+        first.subscribe();
+        second.subscribe(secondResult::set);
+        response.tryEmitValue("George");
+
+        assertEquals("George", secondResult.get());
+        assertEquals(1, calls.get());
+        assertEquals(1, meterRegistry.get("gateway.coalescer.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void completedCallsAreNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.coalesce("owner", 1, () -> Mono.just(calls.incrementAndGet())).block();
+        coalescer.coalesce("owner", 1, () -> Mono.just(calls.incrementAndGet())).block();
+
+        assertEquals(2, calls.get());
+        assertEquals(2, meterRegistry.get("gateway.coalescer.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void syntheticOnlyFlightsStayInTheSyntheticLane() {
+        AtomicReference<SharedPriority> priority = new AtomicReference<>();
+
+        coalescer.coalesce("owner", 1, () -> Mono.deferContextual(context -> {
+                priority.set(context.get(SharedPriority.class));
+                return Mono.just("George");
+            }))
+            .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC))
+            .block();
+
+        assertEquals(RequestPriority.SYNTHETIC, priority.get().get());
+    }
+
+    @Test
+    void interactiveCallerRaisesTheFlight() {
+        AtomicReference<SharedPriority> priority = new AtomicReference<>();
+        Sinks.One<String> response = Sinks.one();
+
+        coalescer.coalesce("owner", 1, () -> Mono.deferContextual(context -> {
+                priority.set(context.get(SharedPriority.class));
+                return response.asMono();
+            }))
+            .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC))
+            .subscribe();
+        coalescer.coalesce("owner", 1, response::asMono).subscribe();
+
+        assertEquals(RequestPriority.INTERACTIVE, priority.get().get());
+    }
+}
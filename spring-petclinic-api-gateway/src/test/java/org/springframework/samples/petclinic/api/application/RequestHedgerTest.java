@@ -0,0 +1,105 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.api.loadbalancer.LoadBalancerHints;
+import org.springframework.samples.petclinic.api.system.HedgingProperties;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HedgingProperties properties = new HedgingProperties();
+
+    private final List<Map<String, Object>> requests = new ArrayList<>();
+
+    RequestHedgerTest() {
+        properties.setEnabled(true);
+        properties.setMaxDelay(Duration.ofMillis(50));
+        properties.setBudgetPercent(100);
+    }
+
+    @Test
+    void firstResponseWinsAndSlowPrimaryIsCancelled() {
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+
+        String result = hedger.hedge("visits-service", respond(
+            Mono.delay(Duration.ofSeconds(5)).thenReturn("primary").doOnCancel(() -> primaryCancelled.set(true)),
+            Mono.just("hedge"))).block();
+
+        assertEquals("hedge", result);
+        assertTrue(primaryCancelled.get());
+        assertEquals(2, requests.size());
+        Object chosen = requests.get(0).get(LoadBalancerHints.CHOSEN_INSTANCE);
+        assertNotNull(chosen);
+        assertSame(chosen, requests.get(1).get(LoadBalancerHints.AVOID_INSTANCE));
+        assertEquals(1, hedgeCount("sent"));
+        assertEquals(1, hedgeCount("won"));
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() {
+        RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+
+        String result = hedger.hedge("visits-service", respond(Mono.just("primary"), Mono.just("hedge"))).block();
+
+        assertEquals("primary", result);
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void exhaustedBudgetStopsHedging() {
+        properties.setBudgetPercent(0);
+        RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+
+        String result = hedger.hedge("vets-service", respond(
+            Mono.delay(Duration.ofMillis(200)).thenReturn("primary"), Mono.just("hedge"))).block();
+
+        assertEquals("primary", result);
+        assertEquals(1, requests.size());
+        assertEquals(1, hedgeCount("budget-exhausted"));
+    }
+
+    @Test
+    void failedHedgeLeavesPrimaryToAnswer() {
+        RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+
+        String result = hedger.hedge("vets-service", respond(
+            Mono.delay(Duration.ofMillis(200)).thenReturn("primary"),
+            Mono.error(new IllegalStateException("instance down")))).block();
+
+        assertEquals("primary", result);
+        assertEquals(2, requests.size());
+    }
+
+    private Function<Consumer<Map<String, Object>>, Mono<String>> respond(Mono<String> primary, Mono<String> hedge) {
+        return attributes -> {
+            Map<String, Object> request = new HashMap<>();
+            attributes.accept(request);
+            requests.add(request);
+            return requests.size() == 1 ? primary : hedge;
+        };
+    }
+
+    private double hedgeCount(String outcome) {
+        return meterRegistry.get("gateway.hedge.requests").tag("outcome", outcome).counter().count();
+    }
+}
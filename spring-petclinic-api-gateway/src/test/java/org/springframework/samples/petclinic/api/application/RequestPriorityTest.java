@@ -0,0 +1,47 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestPriorityTest {
+
+    private static final Set<String> SYNTHETIC_AGENTS = Collections.singleton("axios/");
+
+    @Test
+    void browsersAreInteractive() {
+        assertEquals(RequestPriority.INTERACTIVE, classify(HttpHeaders.USER_AGENT, "Mozilla/5.0"));
+    }
+
+    @Test
+    void knownClientsAreSynthetic() {
+        assertEquals(RequestPriority.SYNTHETIC, classify(HttpHeaders.USER_AGENT, "axios/1.6.0"));
+    }
+
+    @Test
+    void headerMarksRequestsSynthetic() {
+        assertEquals(RequestPriority.SYNTHETIC, classify(RequestPriority.HEADER, "synthetic"));
+        assertEquals(RequestPriority.SYNTHETIC, classify(RequestPriority.HEADER, "low"));
+    }
+
+    @Test
+    void headerCannotRaisePriority() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.USER_AGENT, "axios/1.6.0");
+        headers.set(RequestPriority.HEADER, "interactive");
+
+        assertEquals(RequestPriority.SYNTHETIC, RequestPriority.classify(headers, SYNTHETIC_AGENTS));
+    }
+
+    private static RequestPriority classify(String header, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(header, value);
+        return RequestPriority.classify(headers, SYNTHETIC_AGENTS);
+    }
+}
@@ -0,0 +1,76 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilienceFilterFactoryTest {
+
+    private static final ClientRequest REQUEST =
+        ClientRequest.create(HttpMethod.GET, URI.create("http://vets-service/vets")).build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReactiveResilience4JCircuitBreakerFactory cbFactory = new ReactiveResilience4JCircuitBreakerFactory();
+
+    private final ExchangeFilterFunction filter = new ResilienceFilterFactory(cbFactory,
+        BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build()),
+        meterRegistry).create("vets-service");
+
+    @Test
+    void failsOnServerErrors() {
+        Mono<ClientResponse> call = filter.filter(REQUEST,
+            request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        WebClientResponseException ex = assertThrows(WebClientResponseException.class, call::block);
+        assertEquals(503, ex.getRawStatusCode());
+    }
+
+    @Test
+    void passesClientErrorsOn() {
+        ClientResponse response = filter.filter(REQUEST,
+            request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build())).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.statusCode());
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBulkhead() {
+        filter.filter(REQUEST, request -> Mono.never()).subscribe();
+
+        Mono<ClientResponse> call = filter.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+
+        assertThrows(BulkheadFullException.class, call::block);
+        assertEquals(1, meterRegistry.get("gateway.client.rejected").tag("reason", "bulkhead").counter().count());
+    }
+
+    @Test
+    void rejectsCallsWhileTheCircuitIsOpen() {
+        filter.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.OK).build())).block();
+        cbFactory.getCircuitBreakerRegistry().circuitBreaker("vets-service").transitionToOpenState();
+
+        Mono<ClientResponse> call = filter.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+
+        assertThrows(CallNotPermittedException.class, call::block);
+        assertEquals(1, meterRegistry.get("gateway.client.rejected").tag("reason", "circuit-breaker").counter().count());
+    }
+}
@@ -0,0 +1,43 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerTimingFilterFactoryTest {
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final WebClient webClient = WebClient.builder()
+        .filter(new ServerTimingFilterFactory().create("customers-service"))
+        .build();
+
+    @AfterEach
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void recordsCallsByServiceAndUriTemplate() {
+        server.enqueue(new MockResponse().setBody("{\"id\":1}"));
+        ServerTiming timing = new ServerTiming();
+
+        webClient.get()
+            .uri(server.url("/owners/").toString() + "{ownerId}", 1)
+            .retrieve()
+            .bodyToMono(String.class)
+            .contextWrite(context -> context.put(ServerTiming.class, timing))
+            .block();
+
+        String header = timing.header();
+        assertTrue(header != null && header.matches("customers-service;desc=\"GET /owners/\\{ownerId}\";dur=\\d+\\.\\d"), header);
+    }
+}
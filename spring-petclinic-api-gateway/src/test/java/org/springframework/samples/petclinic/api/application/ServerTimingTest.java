@@ -0,0 +1,50 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ServerTimingTest {
+
+    private final ServerTiming timing = new ServerTiming();
+
+    @Test
+    void rendersEntriesInHeaderSyntax() {
+        timing.record("customers-service", "GET /owners/{ownerId}", TimeUnit.MICROSECONDS.toNanos(1500));
+        timing.record("visits-service", "GET \"batched\"", TimeUnit.MILLISECONDS.toNanos(12));
+
+        assertEquals("customers-service;desc=\"GET /owners/{ownerId}\";dur=1.5, "
+            + "visits-service;desc=\"GET \\\"batched\\\"\";dur=12.0", timing.header());
+    }
+
+    @Test
+    void keepsAtMost32Entries() {
+        for (int i = 0; i < 40; i++) {
+            timing.record("vets-service", "GET /vets", 1_000_000);
+        }
+
+        assertEquals(32, timing.header().split(", ").length);
+    }
+
+    @Test
+    void hasNoHeaderWithoutCalls() {
+        assertNull(timing.header());
+    }
+
+    @Test
+    void timesCallsOnlyInsideSampledExchanges() {
+        assertEquals("owners", ServerTiming.time("customers-service", "GET /owners", Mono.just("owners")).block());
+
+        ServerTiming.time("customers-service", "GET /owners", Mono.just("owners"))
+            .contextWrite(context -> context.put(ServerTiming.class, timing))
+            .block();
+
+        assertEquals(1, timing.header().split(", ").length);
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.api.system.ValidatorCacheProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValidatorCacheTest {
+
+    private static final ParameterizedTypeReference<List<String>> LIST = new ParameterizedTypeReference<List<String>>() {
+    };
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ValidatorCache cache = new ValidatorCache(new ValidatorCacheProperties(), meterRegistry);
+
+    private final WebClient webClient = WebClient.create();
+
+    @AfterEach
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void reusesCachedBodyOnNotModified() throws InterruptedException {
+        server.enqueue(json("[\"a\",\"b\"]").setHeader(HttpHeaders.ETAG, "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+        ResponseEntity<List<String>> first = cache.get(webClient, "letters", uri(), LIST).block();
+        ResponseEntity<List<String>> second = cache.get(webClient, "letters", uri(), LIST).block();
+
+        assertEquals(Arrays.asList("a", "b"), first.getBody());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals("\"v1\"", second.getHeaders().getETag());
+        assertNull(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, meterRegistry.get("gateway.validator-cache.requests").tag("result", "not-modified").counter().count());
+    }
+
+    @Test
+    void replacesBodyWhenModified() throws InterruptedException {
+        server.enqueue(json("[\"a\"]").setHeader(HttpHeaders.LAST_MODIFIED, "Wed, 21 Oct 2015 07:28:00 GMT"));
+        server.enqueue(json("[\"b\"]").setHeader(HttpHeaders.LAST_MODIFIED, "Thu, 22 Oct 2015 07:28:00 GMT"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        cache.get(webClient, "letters", uri(), LIST).block();
+        cache.get(webClient, "letters", uri(), LIST).block();
+        ResponseEntity<List<String>> third = cache.get(webClient, "letters", uri(), LIST).block();
+
+        assertEquals(Arrays.asList("b"), third.getBody());
+        server.takeRequest();
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", server.takeRequest().getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+        RecordedRequest last = server.takeRequest();
+        assertEquals("Thu, 22 Oct 2015 07:28:00 GMT", last.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+
+    @Test
+    void sendsNoConditionsWithoutValidators() throws InterruptedException {
+        server.enqueue(json("[\"a\"]"));
+        server.enqueue(json("[\"a\"]"));
+
+        cache.get(webClient, "letters", uri(), LIST).block();
+        cache.get(webClient, "letters", uri(), LIST).block();
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void reportsErrorsLikeRetrieve() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class, cache.get(webClient, "letters", uri(), LIST)::block);
+    }
+
+    private String uri() {
+        return server.url("/letters/").toString();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader(HttpHeaders.CONTENT_TYPE, "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,143 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.samples.petclinic.api.dto.VisitDetails;
+import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.VisitsBatchProperties;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class VisitsBatcherTest {
+
+    private final VisitsServiceClient visitsServiceClient = Mockito.mock(VisitsServiceClient.class);
+
+    private final VisitsBatchProperties properties = new VisitsBatchProperties();
+
+    private VisitsBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        properties.setWindow(Duration.ofMillis(50));
+        batcher = new VisitsBatcher(visitsServiceClient, properties, new SimpleMeterRegistry());
+        Mockito.when(visitsServiceClient.getVisitsForPets(anyList()))
+            .thenReturn(Mono.just(visits(visit(1, "one"), visit(2, "two"), visit(3, "three"))));
+    }
+
+    @Test
+    void concurrentLookupsShareOneCall() {
+        Mono<Visits> first = batcher.getVisitsForPets(Collections.singletonList(1));
+        Mono<Visits> second = batcher.getVisitsForPets(Arrays.asList(2, 3));
+
+        List<Visits> results = Mono.zip(first, second, Arrays::asList).block(Duration.ofSeconds(5));
+
+        assertEquals(1, results.get(0).getItems().size());
+        assertEquals("one", results.get(0).getItems().get(0).getDescription());
+        assertEquals(2, results.get(1).getItems().size());
+        verifySingleCallWith(Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    void fullBatchIsSentBeforeWindowElapses() {
+        properties.setWindow(Duration.ofMinutes(1));
+        properties.setMaxIds(3);
+
+        Mono<Visits> first = batcher.getVisitsForPets(Arrays.asList(1, 2));
+        Mono<Visits> second = batcher.getVisitsForPets(Collections.singletonList(3));
+
+        Mono.zip(first, second).block(Duration.ofSeconds(5));
+
+        verifySingleCallWith(Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    void batchRunsInTheHighestPriorityOfItsLookups() {
+        List<RequestPriority> priorities = new ArrayList<>();
+        Mockito.when(visitsServiceClient.getVisitsForPets(anyList())).thenReturn(Mono.deferContextual(context -> {
+            priorities.add(context.get(RequestPriority.class));
+            return Mono.just(new Visits());
+        }));
+
+        batcher.getVisitsForPets(Collections.singletonList(1))
+            .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC))
+            .block(Duration.ofSeconds(5));
+        Mono.zip(
+            batcher.getVisitsForPets(Collections.singletonList(1))
+                .contextWrite(context -> context.put(RequestPriority.class, RequestPriority.SYNTHETIC)),
+            batcher.getVisitsForPets(Collections.singletonList(2))).block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList(RequestPriority.SYNTHETIC, RequestPriority.INTERACTIVE), priorities);
+    }
+
+    @Test
+    void batchRunsUntilTheLatestDeadlineOfItsLookups() {
+        List<RequestDeadline> deadlines = new ArrayList<>();
+        Mockito.when(visitsServiceClient.getVisitsForPets(anyList())).thenReturn(Mono.deferContextual(context -> {
+            deadlines.add(context.get(RequestDeadline.class));
+            return Mono.just(new Visits());
+        }));
+        RequestDeadline sooner = RequestDeadline.after(Duration.ofSeconds(1));
+        RequestDeadline later = RequestDeadline.after(Duration.ofSeconds(10));
+
+        Mono.zip(
+            batcher.getVisitsForPets(Collections.singletonList(1))
+                .contextWrite(context -> context.put(RequestDeadline.class, sooner)),
+            batcher.getVisitsForPets(Collections.singletonList(2))
+                .contextWrite(context -> context.put(RequestDeadline.class, later))).block(Duration.ofSeconds(5));
+
+        assertEquals(Collections.singletonList(later), deadlines);
+    }
+
+    @Test
+    void batchIsCancelledOnceEveryLookupIsCancelled() {
+        properties.setMaxIds(2);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mockito.when(visitsServiceClient.getVisitsForPets(anyList()))
+            .thenReturn(Mono.<Visits>never().doOnCancel(() -> cancelled.set(true)));
+
+        Disposable first = batcher.getVisitsForPets(Collections.singletonList(1)).subscribe();
+        Disposable second = batcher.getVisitsForPets(Collections.singletonList(2)).subscribe();
+
+        first.dispose();
+        assertFalse(cancelled.get());
+        second.dispose();
+        assertTrue(cancelled.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifySingleCallWith(List<Integer> petIds) {
+        ArgumentCaptor<List<Integer>> ids = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(visitsServiceClient, Mockito.times(1)).getVisitsForPets(ids.capture());
+        assertEquals(petIds, ids.getValue());
+    }
+
+    private static Visits visits(VisitDetails... items) {
+        Visits visits = new Visits();
+        visits.getItems().addAll(Arrays.asList(items));
+        return visits;
+    }
+
+    private static VisitDetails visit(int petId, String description) {
+        VisitDetails visit = new VisitDetails();
+        visit.setPetId(petId);
+        visit.setDescription(description);
+        return visit;
+    }
+}
@@ -15,12 +15,15 @@
  */
 package org.springframework.samples.petclinic.api.application;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.samples.petclinic.api.dto.Visits;
+import org.springframework.samples.petclinic.api.system.ClientPoolProperties;
+import org.springframework.samples.petclinic.api.system.HedgingProperties;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
@@ -42,7 +45,10 @@ class VisitsServiceClientIntegrationTest {
     @BeforeEach
     void setUp() {
         server = new MockWebServer();
-        visitsServiceClient = new VisitsServiceClient(WebClient.builder());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        visitsServiceClient = new VisitsServiceClient(
+            new WebClientRegistry(WebClient.builder(), new ClientPoolProperties(), meterRegistry, Collections.emptyList()),
+            new RequestHedger(new HedgingProperties(), meterRegistry));
         visitsServiceClient.setHostname(server.url("/").toString());
     }
 
@@ -0,0 +1,91 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.api.system.ClientPoolProperties;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebClientRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ClientPoolProperties properties = new ClientPoolProperties();
+
+    private WebClientRegistry registry;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new MockWebServer();
+        ClientPoolProperties.Pool small = new ClientPoolProperties.Pool();
+        small.setMaxConnections(2);
+        properties.getServices().put("vets-service", small);
+        registry = new WebClientRegistry(WebClient.builder(), properties, meterRegistry, Collections.emptyList());
+    }
+
+    @AfterEach
+    void shutdown() throws IOException {
+        registry.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    void reusesOneClientPerService() {
+        assertSame(registry.get("vets-service"), registry.get("vets-service"));
+        assertNotSame(registry.get("vets-service"), registry.get("visits-service"));
+    }
+
+    @Test
+    void recordsPoolMetricsPerService() {
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        registry.get("vets-service").get()
+            .uri(server.url("/vets").toString())
+            .retrieve()
+            .bodyToMono(String.class)
+            .block();
+
+        assertEquals(1, meterRegistry.get("gateway.client.pool.acquire")
+            .tags("service", "vets-service", "outcome", "success").timer().count());
+        assertEquals(2.0, meterRegistry.get("gateway.client.pool.max")
+            .tag("service", "vets-service").gauge().value());
+        assertNotNull(meterRegistry.get("gateway.client.pool.active").tag("service", "vets-service").gauge());
+    }
+
+    @Test
+    void serviceOverridesKeepTheOtherDefaults() {
+        properties.getDefaults().setResponseTimeout(Duration.ofMillis(200));
+        server.enqueue(new MockResponse().setBody("ok").setHeadersDelay(2, TimeUnit.SECONDS));
+
+        Mono<String> call = registry.get("vets-service").get()
+            .uri(server.url("/vets").toString())
+            .retrieve()
+            .bodyToMono(String.class);
+
+        WebClientRequestException timeout = assertThrows(WebClientRequestException.class, () -> call.block(Duration.ofSeconds(1)));
+        assertTrue(timeout.getCause() instanceof ReadTimeoutException, String.valueOf(timeout.getCause()));
+        assertEquals(2, properties.poolFor("vets-service").getMaxConnections());
+    }
+}
@@ -0,0 +1,80 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.assets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AssetFingerprinterTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void fingerprintsAssetsAndRewritesCssReferences() throws IOException {
+        write("fonts/font.woff", "woff");
+        write("css/app.css", "@font-face { src: url('../fonts/font.woff?#iefix') } "
+            + "a { background: url(\"../webjars/logo.png\") }");
+        write("index.html", "<html></html>");
+
+        Map<String, String> manifest = new AssetFingerprinter(root, false).run();
+
+        String font = manifest.get("/fonts/font.woff");
+        String css = manifest.get("/css/app.css");
+        assertTrue(font.matches("/fonts/font-[0-9a-f]{32}\\.woff"), font);
+        assertTrue(css.matches("/css/app-[0-9a-f]{32}\\.css"), css);
+        assertFalse(manifest.containsKey("/index.html"));
+        String rewritten = read(css);
+        assertTrue(rewritten.contains("url('.." + font + "?#iefix')"), rewritten);
+        assertTrue(rewritten.contains("url(\"../webjars/logo.png\")"), rewritten);
+        assertEquals(manifest, AssetManifest.load(root.resolve(AssetManifest.FILE_NAME).toUri().toURL()));
+    }
+
+    @Test
+    void writesGzipVariantOnlyWhenSmaller() throws IOException {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            script.append("console.log('petclinic');\n");
+        }
+        write("scripts/app.js", script.toString());
+        write("scripts/tiny.js", "x");
+
+        Map<String, String> manifest = new AssetFingerprinter(root, false).run();
+
+        assertTrue(Files.exists(root.resolve(manifest.get("/scripts/app.js").substring(1) + ".gz")));
+        assertFalse(Files.exists(root.resolve(manifest.get("/scripts/tiny.js").substring(1) + ".gz")));
+    }
+
+    @Test
+    void replacesOutputOfPreviousRun() throws IOException {
+        write("scripts/app.js", "var version = 1;");
+        String first = new AssetFingerprinter(root, false).run().get("/scripts/app.js");
+        write("scripts/app.js", "var version = 2;");
+
+        String second = new AssetFingerprinter(root, false).run().get("/scripts/app.js");
+
+        assertFalse(first.equals(second));
+        assertFalse(Files.exists(root.resolve(first.substring(1))));
+        assertEquals("var version = 2;", read(second));
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read(String urlPath) throws IOException {
+        return new String(Files.readAllBytes(root.resolve(urlPath.substring(1))), StandardCharsets.UTF_8);
+    }
+}
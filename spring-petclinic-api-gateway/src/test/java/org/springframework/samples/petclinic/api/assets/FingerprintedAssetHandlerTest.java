@@ -0,0 +1,67 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.assets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.api.system.StaticAssetProperties;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+class FingerprintedAssetHandlerTest {
+
+    @TempDir
+    Path root;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(root.resolve("scripts"));
+        Files.write(root.resolve("scripts/app-0123abcd.js"), "var app;".getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("scripts/app-0123abcd.js.gz"), new byte[]{31, -117});
+        FingerprintedAssetHandler handler = new FingerprintedAssetHandler(
+            new AssetManifest(Collections.singletonMap("/scripts/app.js", "/scripts/app-0123abcd.js")),
+            new StaticAssetProperties(), new FileSystemResource(root.toString() + "/"));
+        client = WebTestClient.bindToRouterFunction(RouterFunctions.route(handler.predicate(), handler)).build();
+    }
+
+    @Test
+    void servesFingerprintedAssetAsImmutable() {
+        client.get().uri("/scripts/app-0123abcd.js")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable")
+            .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+            .expectHeader().contentType("application/javascript")
+            .expectBody(String.class).isEqualTo("var app;");
+    }
+
+    @Test
+    void servesPrecompressedVariantWhenAccepted() {
+        client.get().uri("/scripts/app-0123abcd.js")
+            .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .expectHeader().contentType("application/javascript")
+            .expectHeader().contentLength(2);
+    }
+
+    @Test
+    void leavesPlainNamesToTheDefaultResourceHandler() {
+        client.get().uri("/scripts/app.js")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.api.application.BillingServiceClient;
+import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.IdempotencyStore;
+import org.springframework.samples.petclinic.api.application.InsuranceServiceClient;
+import org.springframework.samples.petclinic.api.application.NutritionServiceClient;
+import org.springframework.samples.petclinic.api.application.OwnerPrefetcher;
+import org.springframework.samples.petclinic.api.application.PaymentClient;
+import org.springframework.samples.petclinic.api.application.ReferenceDataCache;
+import org.springframework.samples.petclinic.api.application.RequestCoalescer;
+import org.springframework.samples.petclinic.api.application.VetsServiceClient;
+import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
+import org.springframework.samples.petclinic.api.dto.BillingDetail;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiControllerConditionalGetTest {
+
+    private final BillingServiceClient billingServiceClient = Mockito.mock(BillingServiceClient.class);
+
+    private final ReferenceDataCache referenceDataCache = Mockito.mock(ReferenceDataCache.class);
+
+    private final WebTestClient client = WebTestClient.bindToController(new ApiController(
+            Mockito.mock(CustomersServiceClient.class), Mockito.mock(VetsServiceClient.class),
+            Mockito.mock(VisitsServiceClient.class), Mockito.mock(InsuranceServiceClient.class), billingServiceClient,
+            Mockito.mock(PaymentClient.class), Mockito.mock(NutritionServiceClient.class),
+            Mockito.mock(RequestCoalescer.class), referenceDataCache, Mockito.mock(OwnerPrefetcher.class), Mockito.mock(IdempotencyStore.class)))
+        .build();
+
+    @Test
+    void passesDownstreamETagOnAsWeak() {
+        BillingDetail billing = new BillingDetail();
+        billing.setId(7);
+        List<BillingDetail> billings = Collections.singletonList(billing);
+        Mockito.when(billingServiceClient.getBillingList()).thenReturn(Mono.just(ResponseEntity.ok()
+            .eTag("\"v1\"")
+            .body(billings)));
+
+        client.get().uri("/api/billing/billings")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"v1\"")
+            .expectBody().jsonPath("$[0].id").isEqualTo(7);
+    }
+
+    @Test
+    void answersNotModifiedForUnchangedBillings() {
+        Mockito.when(billingServiceClient.getBillingList()).thenReturn(Mono.just(ResponseEntity.ok()
+            .eTag("\"v1\"")
+            .body(Collections.<BillingDetail>emptyList())));
+
+        client.get().uri("/api/billing/billings")
+            .ifNoneMatch("W/\"v1\"")
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectBody().isEmpty();
+    }
+
+    @Test
+    void tagsInsurancePlansWithCachedETag() {
+        Mockito.when(referenceDataCache.getJson(Mockito.eq("insurances"), Mockito.any()))
+            .thenReturn(Mono.just(new ReferenceDataCache.Json("[]".getBytes(StandardCharsets.UTF_8), "\"h1\"")));
+
+        String eTag = client.get().uri("/api/insurance/insurances")
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(String.class)
+            .getResponseHeaders().getETag();
+        assertEquals("\"h1\"", eTag);
+
+        client.get().uri("/api/insurance/insurances")
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+}
@@ -0,0 +1,118 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.api.application.BillingServiceClient;
+import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.IdempotencyStore;
+import org.springframework.samples.petclinic.api.application.InsuranceServiceClient;
+import org.springframework.samples.petclinic.api.application.NutritionServiceClient;
+import org.springframework.samples.petclinic.api.application.OwnerPrefetcher;
+import org.springframework.samples.petclinic.api.application.PaymentClient;
+import org.springframework.samples.petclinic.api.application.ReferenceDataCache;
+import org.springframework.samples.petclinic.api.application.RequestCoalescer;
+import org.springframework.samples.petclinic.api.application.VetsServiceClient;
+import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
+import org.springframework.samples.petclinic.api.assets.AssetManifest;
+import org.springframework.samples.petclinic.api.assets.FingerprintedAssetHandler;
+import org.springframework.samples.petclinic.api.dto.BillingDetail;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Which of {@link RelayRoutes} and {@link ApiController} serves an endpoint with the relay settings
+ * of application.yml.
+ */
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(controllers = ApiController.class)
+@Import({RelayRoutes.class, SimpleMeterRegistry.class, AssetManifest.class, FingerprintedAssetHandler.class})
+class ApiControllerRoutingTest {
+
+    @MockBean
+    private CustomersServiceClient customersServiceClient;
+
+    @MockBean
+    private VetsServiceClient vetsServiceClient;
+
+    @MockBean
+    private VisitsServiceClient visitsServiceClient;
+
+    @MockBean
+    private InsuranceServiceClient insuranceServiceClient;
+
+    @MockBean
+    private BillingServiceClient billingServiceClient;
+
+    @MockBean
+    private PaymentClient paymentClient;
+
+    @MockBean
+    private NutritionServiceClient nutritionServiceClient;
+
+    @MockBean
+    private RequestCoalescer requestCoalescer;
+
+    @MockBean
+    private ReferenceDataCache referenceDataCache;
+
+    @MockBean
+    private OwnerPrefetcher ownerPrefetcher;
+
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void billingsAreServedWithWeakETags() {
+        Mockito.when(billingServiceClient.getBillingList()).thenReturn(Mono.just(ResponseEntity.ok()
+            .eTag("\"v1\"")
+            .body(Collections.<BillingDetail>emptyList())));
+
+        client.get().uri("/api/billing/billings")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "W/\"v1\"");
+        Mockito.verify(billingServiceClient, Mockito.never()).relayBillings(Mockito.any());
+    }
+
+    @Test
+    void ownersAreRelayed() {
+        DataBuffer body = DefaultDataBufferFactory.sharedInstance.wrap("[]".getBytes(StandardCharsets.UTF_8));
+        Mockito.when(customersServiceClient.relayOwners()).thenReturn(Mono.just(ResponseEntity.ok()
+            .eTag("\"v1\"")
+            .body(Flux.just(body))));
+
+        client.get().uri("/api/customer/owners")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"");
+        Mockito.verify(customersServiceClient, Mockito.never()).getOwners();
+    }
+
+    @Test
+    void malformedPaymentIdsAreRejected() {
+        client.get().uri("/api/payments/owners/abc/pets/2")
+            .exchange()
+            .expectStatus().isBadRequest();
+        Mockito.verifyNoInteractions(paymentClient);
+    }
+}
@@ -0,0 +1,120 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.samples.petclinic.api.application.BillingServiceClient;
+import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.IdempotencyStore;
+import org.springframework.samples.petclinic.api.application.InsuranceServiceClient;
+import org.springframework.samples.petclinic.api.application.NutritionServiceClient;
+import org.springframework.samples.petclinic.api.application.OwnerPrefetcher;
+import org.springframework.samples.petclinic.api.application.PaymentClient;
+import org.springframework.samples.petclinic.api.application.ReferenceDataCache;
+import org.springframework.samples.petclinic.api.application.RequestCoalescer;
+import org.springframework.samples.petclinic.api.application.VetsServiceClient;
+import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
+import org.springframework.samples.petclinic.api.dto.BillingDetail;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiControllerStreamingTest {
+
+    private final CustomersServiceClient customersServiceClient = Mockito.mock(CustomersServiceClient.class);
+
+    private final BillingServiceClient billingServiceClient = Mockito.mock(BillingServiceClient.class);
+
+    private final WebTestClient client = WebTestClient.bindToController(new ApiController(customersServiceClient,
+            Mockito.mock(VetsServiceClient.class), Mockito.mock(VisitsServiceClient.class),
+            Mockito.mock(InsuranceServiceClient.class), billingServiceClient, Mockito.mock(PaymentClient.class),
+            Mockito.mock(NutritionServiceClient.class), Mockito.mock(RequestCoalescer.class),
+            Mockito.mock(ReferenceDataCache.class), Mockito.mock(OwnerPrefetcher.class), Mockito.mock(IdempotencyStore.class)))
+        .build();
+
+    @Test
+    void streamsOwnersAsNdjson() {
+        Mockito.when(customersServiceClient.getOwners()).thenReturn(Flux.range(1, 3).map(ApiControllerStreamingTest::owner));
+
+        String body = client.get().uri("/api/customer/owners")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"), lines[0]);
+    }
+
+    @Test
+    void streamsBillingsAsServerSentEvents() {
+        BillingDetail billing = new BillingDetail();
+        billing.setId(7);
+        Mockito.when(billingServiceClient.getBillings()).thenReturn(Flux.just(billing));
+
+        List<ServerSentEvent<BillingDetail>> events = client.get().uri("/api/billing/billings")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(new ParameterizedTypeReference<ServerSentEvent<BillingDetail>>() {
+            })
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(1, events.size());
+        assertEquals(7, events.get(0).data().getId());
+    }
+
+    @Test
+    void keepsJsonArrayForPlainJson() {
+        Mockito.when(customersServiceClient.getOwners()).thenReturn(Flux.range(1, 2).map(ApiControllerStreamingTest::owner));
+
+        client.get().uri("/api/customer/owners")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void pullsOwnersOnlyAsFastAsTheClientReads() {
+        AtomicLong produced = new AtomicLong();
+        Mockito.when(customersServiceClient.getOwners()).thenReturn(Flux.range(1, 1_000_000)
+            .doOnNext(id -> produced.incrementAndGet())
+            .map(ApiControllerStreamingTest::owner));
+
+        List<OwnerDetails> firstOwners = client.get().uri("/api/customer/owners")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .returnResult(OwnerDetails.class)
+            .getResponseBody()
+            .take(10)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(10, firstOwners.size());
+        assertTrue(produced.get() < 10_000, "produced " + produced.get() + " owners for a client that read 10");
+    }
+
+    private static OwnerDetails owner(int id) {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setId(id);
+        owner.setFirstName("George");
+        owner.setLastName("Franklin");
+        return owner;
+    }
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.samples.petclinic.api.boundary.web;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -23,7 +26,17 @@ import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JAutoConfiguration;
 import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.api.assets.AssetManifest;
+import org.springframework.samples.petclinic.api.assets.FingerprintedAssetHandler;
+import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.LastKnownGoodStore;
+import org.springframework.samples.petclinic.api.application.OwnerBatchService;
+import org.springframework.samples.petclinic.api.application.OwnerDashboardService;
+import org.springframework.samples.petclinic.api.application.OwnerPrefetcher;
+import org.springframework.samples.petclinic.api.application.RequestCoalescer;
+import org.springframework.samples.petclinic.api.application.ServerTiming;
+import org.springframework.samples.petclinic.api.application.VisitsBatcher;
 import org.springframework.samples.petclinic.api.application.VisitsServiceClient;
 import org.springframework.samples.petclinic.api.dto.OwnerDetails;
 import org.springframework.samples.petclinic.api.dto.PetDetails;
@@ -31,14 +44,18 @@ import org.springframework.samples.petclinic.api.dto.VisitDetails;
 import org.springframework.samples.petclinic.api.dto.Visits;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.net.ConnectException;
+import java.util.Arrays;
 import java.util.Collections;
 
 @ExtendWith(SpringExtension.class)
 @WebFluxTest(controllers = ApiGatewayController.class)
-@Import({ReactiveResilience4JAutoConfiguration.class, CircuitBreakerConfiguration.class})
+@Import({ReactiveResilience4JAutoConfiguration.class, CircuitBreakerConfiguration.class,
+    VisitsBatcher.class, RequestCoalescer.class, LastKnownGoodStore.class, SimpleMeterRegistry.class,
+    AssetManifest.class, FingerprintedAssetHandler.class, OwnerBatchService.class})
 class ApiGatewayControllerTest {
 
     @MockBean
@@ -47,9 +64,23 @@ class ApiGatewayControllerTest {
     @MockBean
     private VisitsServiceClient visitsServiceClient;
 
+    @MockBean
+    private OwnerDashboardService ownerDashboardService;
+
+    @MockBean
+    private OwnerPrefetcher ownerPrefetcher;
+
     @Autowired
     private WebTestClient client;
 
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @AfterEach
+    void closeCircuitBreaker() {
+        circuitBreakerRegistry.circuitBreaker("getOwnerDetails").transitionToClosedState();
+    }
+
 
     @Test
     void getOwnerDetails_withAvailableVisitsService() {
@@ -76,6 +107,7 @@ class ApiGatewayControllerTest {
             .uri("/api/gateway/owners/1")
             .exchange()
             .expectStatus().isOk()
+            .expectHeader().valueMatches(ServerTiming.HEADER, "visits-service;desc=\"GET /pets/visits \\(batched\\)\";dur=[0-9.]+")
             //.expectBody(String.class)
             //.consumeWith(response ->
             //    Assertions.assertThat(response.getResponseBody()).isEqualTo("Garfield"));
@@ -84,6 +116,83 @@ class ApiGatewayControllerTest {
             .jsonPath("$.pets[0].visits[0].description").isEqualTo("First visit");
     }
 
+    @Test
+    void getOwnersDetails_inRequestedOrder() {
+        OwnerDetails first = new OwnerDetails();
+        first.setId(1);
+        PetDetails cat = new PetDetails();
+        cat.setId(20);
+        first.getPets().add(cat);
+        OwnerDetails second = new OwnerDetails();
+        second.setId(2);
+        Mockito
+            .when(customersServiceClient.getOwners(Arrays.asList(2, 1, 3)))
+            .thenReturn(Flux.just(first, second));
+
+        Visits visits = new Visits();
+        VisitDetails visit = new VisitDetails();
+        visit.setPetId(cat.getId());
+        visit.setDescription("First visit");
+        visits.getItems().add(visit);
+        Mockito
+            .when(visitsServiceClient.getVisitsForPets(Collections.singletonList(cat.getId())))
+            .thenReturn(Mono.just(visits));
+
+        client.get()
+            .uri("/api/gateway/owners?ids=2,1,3")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.length()").isEqualTo(2)
+            .jsonPath("$[0].id").isEqualTo(2)
+            .jsonPath("$[1].id").isEqualTo(1)
+            .jsonPath("$[1].pets[0].visits[0].description").isEqualTo("First visit");
+    }
+
+    @Test
+    void getOwnersDetails_streamsSelectedFields() {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setId(1);
+        owner.setFirstName("Jon");
+        owner.setCity("Madison");
+        Mockito
+            .when(customersServiceClient.getOwners(Collections.singletonList(1)))
+            .thenReturn(Flux.just(owner));
+
+        client.get()
+            .uri("/api/gateway/owners?ids=1&fields=id,firstName")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo("{\"id\":1,\"firstName\":\"Jon\"}\n");
+        Mockito.verifyNoInteractions(visitsServiceClient);
+    }
+
+    @Test
+    void getOwnerDetails_withoutVisitsField() {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setFirstName("Jon");
+        PetDetails cat = new PetDetails();
+        cat.setId(20);
+        cat.setName("Garfield");
+        owner.getPets().add(cat);
+        Mockito
+            .when(customersServiceClient.getOwner(1))
+            .thenReturn(Mono.just(owner));
+
+        client.get()
+            .uri("/api/gateway/owners/1?fields=firstName,pets.name")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.firstName").isEqualTo("Jon")
+            .jsonPath("$.lastName").doesNotExist()
+            .jsonPath("$.pets[0].name").isEqualTo("Garfield")
+            .jsonPath("$.pets[0].id").doesNotExist()
+            .jsonPath("$.pets[0].visits").doesNotExist();
+        Mockito.verifyNoInteractions(visitsServiceClient);
+    }
+
     /**
      * Test Resilience4j fallback method
      */
@@ -111,4 +220,42 @@ class ApiGatewayControllerTest {
             .jsonPath("$.pets[0].visits").isEmpty();
     }
 
+    @Test
+    void getOwnerDetails_withOpenCircuitServesLastKnownVisits() {
+        OwnerDetails owner = new OwnerDetails();
+        PetDetails cat = new PetDetails();
+        cat.setId(20);
+        cat.setName("Garfield");
+        owner.getPets().add(cat);
+        Mockito
+            .when(customersServiceClient.getOwner(1))
+            .thenReturn(Mono.just(owner));
+
+        Visits visits = new Visits();
+        VisitDetails visit = new VisitDetails();
+        visit.setId(300);
+        visit.setDescription("First visit");
+        visit.setPetId(cat.getId());
+        visits.getItems().add(visit);
+        Mockito
+            .when(visitsServiceClient.getVisitsForPets(Collections.singletonList(cat.getId())))
+            .thenReturn(Mono.just(visits));
+
+        client.get()
+            .uri("/api/gateway/owners/1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().doesNotExist("Warning");
+
+        circuitBreakerRegistry.circuitBreaker("getOwnerDetails").transitionToForcedOpenState();
+
+        client.get()
+            .uri("/api/gateway/owners/1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("Warning", "110 - \"Response is Stale\"")
+            .expectBody()
+            .jsonPath("$.pets[0].visits[0].description").isEqualTo("First visit");
+    }
+
 }
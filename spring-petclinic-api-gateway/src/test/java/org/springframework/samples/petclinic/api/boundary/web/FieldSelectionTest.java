@@ -0,0 +1,39 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldSelectionTest {
+
+    @Test
+    void selectsEverythingWithoutFields() {
+        FieldSelection selection = FieldSelection.parse(null);
+
+        assertTrue(selection.isAll());
+        assertTrue(selection.includes("pets.visits"));
+        assertTrue(FieldSelection.parse(" , ").isAll());
+    }
+
+    @Test
+    void selectsPropertiesBelowASelectedOne() {
+        FieldSelection selection = FieldSelection.parse("firstName, pets");
+
+        assertTrue(selection.includes("firstName"));
+        assertTrue(selection.includes("pets.visits.date"));
+        assertFalse(selection.includes("lastName"));
+        assertFalse(selection.includes("firstNameAlias"));
+    }
+
+    @Test
+    void keepsObjectsLeadingToASelectedProperty() {
+        FieldSelection selection = FieldSelection.parse("pets.visits.date");
+
+        assertTrue(selection.includes("pets"));
+        assertTrue(selection.includes("pets.visits"));
+        assertFalse(selection.includes("pets.name"));
+    }
+}
@@ -0,0 +1,155 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.samples.petclinic.api.dto.BillingDetail;
+import org.springframework.samples.petclinic.api.dto.OwnerDetails;
+import org.springframework.samples.petclinic.api.dto.PetDetails;
+import org.springframework.samples.petclinic.api.dto.PetType;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares answering a list endpoint by decoding the downstream JSON into DTOs and encoding it
+ * again, as {@link ApiController} does, with relaying the downstream buffers as {@link RelayRoutes}
+ * does. The body arrives in 8 KB buffers, like reads from the connection. Not part of the test
+ * suite; run its main method, or with {@code -prof gc} through the JMH runner for allocation rates:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main RelayBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RelayBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @Param({"owners", "billings"})
+    public String list;
+
+    @Param({"1000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(objectMapper);
+
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper);
+
+    private Class<?> type;
+
+    private List<byte[]> chunks;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add("owners".equals(list) ? owner(i) : billing(i));
+        }
+        type = "owners".equals(list) ? OwnerDetails.class : BillingDetail.class;
+        byte[] json = objectMapper.writeValueAsBytes(items);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < json.length; offset += CHUNK_SIZE) {
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, json.length - offset)];
+            System.arraycopy(json, offset, chunk, 0, chunk.length);
+            chunks.add(chunk);
+        }
+    }
+
+    @Benchmark
+    public long decodeAndEncode() {
+        ResolvableType elementType = ResolvableType.forClass(type);
+        Flux<Object> items = decoder.decode(downstream(), elementType, MediaType.APPLICATION_JSON, Collections.emptyMap());
+        return written(encoder.encode(items, DefaultDataBufferFactory.sharedInstance, elementType,
+            MediaType.APPLICATION_JSON, Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public long relay() {
+        return written(downstream());
+    }
+
+    private Flux<DataBuffer> downstream() {
+        return Flux.fromIterable(chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+
+    private static long written(Flux<DataBuffer> body) {
+        return body.map(buffer -> {
+                int length = buffer.readableByteCount();
+                DataBufferUtils.release(buffer);
+                return (long) length;
+            })
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    private static OwnerDetails owner(int id) {
+        OwnerDetails owner = new OwnerDetails();
+        owner.setId(id);
+        owner.setFirstName("George" + id);
+        owner.setLastName("Franklin");
+        owner.setAddress("110 W. Liberty St.");
+        owner.setCity("Madison");
+        owner.setTelephone("6085551023");
+        for (int i = 0; i < 2; i++) {
+            PetDetails pet = new PetDetails();
+            pet.setId(id * 2 + i);
+            pet.setName("Leo");
+            pet.setBirthDate("2010-09-07");
+            PetType petType = new PetType();
+            petType.setName("cat");
+            pet.setType(petType);
+            owner.getPets().add(pet);
+        }
+        return owner;
+    }
+
+    private static BillingDetail billing(int id) {
+        BillingDetail billing = new BillingDetail();
+        billing.setId(id);
+        billing.setOwner_id(id / 2);
+        billing.setFirst_name("George");
+        billing.setLast_name("Franklin");
+        billing.setType("insurance");
+        billing.setType_name("Basic Pet Insurance");
+        billing.setPet_id(id);
+        billing.setPayment(29.99f);
+        billing.setStatus("paid");
+        return billing;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RelayBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.boundary.web;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.api.application.BillingServiceClient;
+import org.springframework.samples.petclinic.api.application.CustomersServiceClient;
+import org.springframework.samples.petclinic.api.application.PaymentClient;
+import org.springframework.samples.petclinic.api.system.RelayProperties;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+class RelayRoutesTest {
+
+    private final CustomersServiceClient customersServiceClient = Mockito.mock(CustomersServiceClient.class);
+
+    private final BillingServiceClient billingServiceClient = Mockito.mock(BillingServiceClient.class);
+
+    private final PaymentClient paymentClient = Mockito.mock(PaymentClient.class);
+
+    private final RelayProperties properties = new RelayProperties();
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToRouterFunction(new RelayRoutes()
+            .relayRouterFunction(properties, customersServiceClient, billingServiceClient, paymentClient)).build();
+    }
+
+    @Test
+    void relaysBodyAndContentHeaders() {
+        properties.getEndpoints().add("owners");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag("\"v1\"");
+        headers.set("X-Internal", "backend");
+        Mockito.when(customersServiceClient.relayOwners()).thenReturn(Mono.just(
+            new ResponseEntity<>(buffers("[{\"id\":1,", "\"firstName\":\"George\"}]"), headers, HttpStatus.OK)));
+
+        client.get().uri("/api/customer/owners")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.APPLICATION_JSON)
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+            .expectHeader().doesNotExist("X-Internal")
+            .expectBody(String.class).isEqualTo("[{\"id\":1,\"firstName\":\"George\"}]");
+    }
+
+    @Test
+    void leavesEndpointsNotRelayedToTheController() {
+        properties.getEndpoints().add("owners");
+
+        client.get().uri("/api/billing/billings")
+            .exchange()
+            .expectStatus().isNotFound();
+        Mockito.verifyNoInteractions(billingServiceClient);
+    }
+
+    @Test
+    void leavesStreamingVariantsToTheController() {
+        properties.getEndpoints().add("owners");
+
+        client.get().uri("/api/customer/owners")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isNotFound();
+        Mockito.verifyNoInteractions(customersServiceClient);
+    }
+
+    @Test
+    void relaysPaymentsOfPet() {
+        properties.getEndpoints().add("payments");
+        Mockito.when(paymentClient.relayPayments(1, 2)).thenReturn(Mono.just(ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(buffers("[]"))));
+
+        client.get().uri("/api/payments/owners/1/pets/2")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo("[]");
+    }
+
+    @Test
+    void leavesMalformedIdsToTheController() {
+        properties.getEndpoints().add("payments");
+
+        client.get().uri("/api/payments/owners/abc/pets/2")
+            .exchange()
+            .expectStatus().isNotFound();
+        client.get().uri("/api/payments/owners/1/pets/99999999999")
+            .exchange()
+            .expectStatus().isNotFound();
+        Mockito.verifyNoInteractions(paymentClient);
+    }
+
+    @Test
+    void passesConditionsOnAndRelaysNotModified() {
+        properties.getEndpoints().add("billings");
+        Mockito.when(billingServiceClient.relayBillings(Mockito.any())).thenAnswer(invocation -> {
+            HttpHeaders conditions = invocation.getArgument(0);
+            HttpStatus status = "\"v1\"".equals(conditions.getFirst(HttpHeaders.IF_NONE_MATCH))
+                ? HttpStatus.NOT_MODIFIED : HttpStatus.OK;
+            return Mono.just(ResponseEntity.status(status).eTag("\"v1\"").body(Flux.<DataBuffer>empty()));
+        });
+
+        client.get().uri("/api/billing/billings")
+            .ifNoneMatch("\"v1\"")
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"");
+    }
+
+    @Test
+    void reportsRejectedCallAsUnavailable() {
+        properties.getEndpoints().add("billing-summary");
+        Mockito.when(billingServiceClient.relayBillingSummary(Mockito.any())).thenReturn(Mono.error(
+            CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("billing-service"))));
+
+        client.get().uri("/api/billing/summary")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static Flux<DataBuffer> buffers(String... chunks) {
+        return Flux.fromArray(chunks)
+            .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
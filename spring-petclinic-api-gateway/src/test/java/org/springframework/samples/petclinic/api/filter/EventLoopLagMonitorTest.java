@@ -0,0 +1,46 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import io.netty.channel.DefaultEventLoop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLoopLagMonitorTest {
+
+    private final DefaultEventLoop loop = new DefaultEventLoop();
+
+    private final EventLoopLagMonitor monitor = new EventLoopLagMonitor(loop, Duration.ofMillis(10));
+
+    @AfterEach
+    void shutDown() {
+        monitor.stop();
+        loop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void reportsBlockedLoopAsLagging() throws InterruptedException {
+        monitor.start();
+        Thread.sleep(50);
+        assertTrue(monitor.lag().compareTo(Duration.ofMillis(100)) < 0, monitor.lag().toString());
+
+        CountDownLatch release = new CountDownLatch(1);
+        loop.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(300);
+
+        assertTrue(monitor.lag().compareTo(Duration.ofMillis(200)) > 0, monitor.lag().toString());
+        release.countDown();
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.samples.petclinic.api.application.RequestPriority;
+import org.springframework.samples.petclinic.api.system.LoadSheddingProperties;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LoadSheddingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LoadSheddingProperties properties = new LoadSheddingProperties();
+
+    private final EventLoopLagMonitor lagMonitor = Mockito.mock(EventLoopLagMonitor.class);
+
+    private final LoadSheddingFilter filter = new LoadSheddingFilter(properties, lagMonitor, meterRegistry);
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    LoadSheddingFilterTest() {
+        Mockito.when(lagMonitor.lag()).thenReturn(Duration.ZERO);
+    }
+
+    @Test
+    void shedsSyntheticRequestsWhileEventLoopsLag() {
+        Mockito.when(lagMonitor.lag()).thenReturn(Duration.ofMillis(500));
+
+        MockServerWebExchange exchange = exchange("/api/customer/owners", RequestPriority.SYNTHETIC);
+        filter.filter(exchange, this::handle).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        assertEquals("1", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, handled.get());
+        assertEquals(1, meterRegistry.get("gateway.load-shedding.shed").tag("reason", "lag").counter().count());
+    }
+
+    @Test
+    void admitsInteractiveRequestsWhileEventLoopsLag() {
+        Mockito.when(lagMonitor.lag()).thenReturn(Duration.ofMillis(500));
+
+        MockServerWebExchange exchange = exchange("/api/customer/owners", RequestPriority.INTERACTIVE);
+        filter.filter(exchange, this::handle).block();
+
+        assertNull(exchange.getResponse().getStatusCode());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void shedsSyntheticRequestsBeyondMaxInFlight() {
+        properties.setMaxInFlight(1);
+        Sinks.Empty<Void> first = Sinks.empty();
+        filter.filter(exchange("/api/customer/owners", RequestPriority.INTERACTIVE), exchange -> first.asMono()).subscribe();
+
+        MockServerWebExchange exchange = exchange("/api/vet/vets", RequestPriority.SYNTHETIC);
+        filter.filter(exchange, this::handle).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+
+        first.tryEmitEmpty();
+        MockServerWebExchange retried = exchange("/api/vet/vets", RequestPriority.SYNTHETIC);
+        filter.filter(retried, this::handle).block();
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void neverShedsHealthChecksOrStaticContent() {
+        Mockito.when(lagMonitor.lag()).thenReturn(Duration.ofMillis(500));
+
+        filter.filter(exchange("/actuator/health", RequestPriority.SYNTHETIC), this::handle).block();
+        filter.filter(exchange("/scripts/app.js", RequestPriority.SYNTHETIC), this::handle).block();
+
+        assertEquals(2, handled.get());
+    }
+
+    private Mono<Void> handle(org.springframework.web.server.ServerWebExchange exchange) {
+        handled.incrementAndGet();
+        return Mono.empty();
+    }
+
+    private static MockServerWebExchange exchange(String path, RequestPriority priority) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(RequestPriority.ATTRIBUTE, priority);
+        return exchange;
+    }
+}
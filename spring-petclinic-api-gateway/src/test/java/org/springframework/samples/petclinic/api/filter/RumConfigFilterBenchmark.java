@@ -0,0 +1,168 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.samples.petclinic.api.assets.AssetManifest;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serving index.html through the previous buffer-and-replace filter with the
+ * precomputed {@link RumConfigFilter}. Not part of the test suite; run it with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.springframework.samples.petclinic.api.filter.RumConfigFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RumConfigFilterBenchmark {
+
+    @Param({"identity", "gzip, deflate, br"})
+    public String acceptEncoding;
+
+    private byte[] indexHtml;
+
+    private WebFilter legacy;
+
+    private WebFilter precomputed;
+
+    private final WebSessionManager sessionManager = new DefaultWebSessionManager();
+
+    private final ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+
+    private final LocaleContextResolver localeContextResolver = new AcceptHeaderLocaleContextResolver();
+
+    @Setup
+    public void setUp() throws IOException {
+        ClassPathResource resource = new ClassPathResource("static/index.html");
+        try (InputStream in = resource.getInputStream()) {
+            indexHtml = StreamUtils.copyToByteArray(in);
+        }
+        legacy = new LegacyRumConfigFilter("monitor", "pool", "us-east-1");
+        precomputed = new RumConfigFilter("monitor", "pool", "us-east-1", resource,
+            new AssetManifest(Collections.emptyMap()));
+    }
+
+    @Benchmark
+    public int legacy() {
+        return serve(legacy);
+    }
+
+    @Benchmark
+    public int precomputed() {
+        return serve(precomputed);
+    }
+
+    private int serve(WebFilter filter) {
+        // Codecs and session manager are shared; MockServerWebExchange would create them per request
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        ServerWebExchange exchange = new DefaultServerWebExchange(
+            MockServerHttpRequest.get("/").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding).build(),
+            response, sessionManager, codecConfigurer, localeContextResolver);
+        // Stands in for the static resource handler behind the filter
+        WebFilterChain chain = ex -> ex.getResponse().writeWith(
+            Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(indexHtml)));
+        filter.filter(exchange, chain).block();
+        return DataBufferUtils.join(response.getBody())
+            .map(buffer -> {
+                int length = buffer.readableByteCount();
+                DataBufferUtils.release(buffer);
+                return length;
+            })
+            .block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RumConfigFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The filter as it was before index.html was prepared at startup: every request decodes
+     * the body, replaces the placeholders and encodes it again.
+     */
+    static class LegacyRumConfigFilter implements WebFilter {
+
+        private final String monitorId;
+
+        private final String identityPoolId;
+
+        private final String region;
+
+        LegacyRumConfigFilter(String monitorId, String identityPoolId, String region) {
+            this.monitorId = monitorId;
+            this.identityPoolId = identityPoolId;
+            this.region = region;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            ServerHttpResponse originalResponse = exchange.getResponse();
+            ServerHttpResponseDecorator decoratedResponse = new ServerHttpResponseDecorator(originalResponse) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    Flux<? extends DataBuffer> fluxBody = Flux.from(body);
+                    return super.writeWith(fluxBody.buffer().map(dataBuffers -> {
+                        StringBuilder builder = new StringBuilder();
+                        dataBuffers.forEach(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            builder.append(new String(bytes, StandardCharsets.UTF_8));
+                        });
+                        String content = builder.toString();
+                        content = content.replace("{{AWS_RUM_MONITOR_ID}}", monitorId);
+                        content = content.replace("{{AWS_RUM_IDENTITY_POOL_ID}}", identityPoolId);
+                        content = content.replace("{{REGION}}", region);
+                        byte[] modifiedBytes = content.getBytes(StandardCharsets.UTF_8);
+                        return exchange.getResponse().bufferFactory().wrap(modifiedBytes);
+                    }).flatMap(Flux::just));
+                }
+            };
+            return chain.filter(exchange.mutate().response(decoratedResponse).build());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.samples.petclinic.api.assets.AssetManifest;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RumConfigFilterTest {
+
+    private static final String INDEX =
+        "<html><script>cwr('{{AWS_RUM_MONITOR_ID}}', '{{AWS_RUM_IDENTITY_POOL_ID}}', '{{REGION}}')</script></html>";
+
+    private RumConfigFilter filter;
+
+    @BeforeEach
+    void createFilter() throws IOException {
+        filter = new RumConfigFilter("monitor", "pool", "us-east-1",
+            new ByteArrayResource(INDEX.getBytes(StandardCharsets.UTF_8)), new AssetManifest(Collections.emptyMap()));
+    }
+
+    @Test
+    void servesSubstitutedPageWithoutEncoding() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+        filter.filter(exchange, ex -> Mono.error(new AssertionError("chain called"))).block();
+
+        assertEquals("<html><script>cwr('monitor', 'pool', 'us-east-1')</script></html>",
+            exchange.getResponse().getBodyAsString().block());
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, exchange.getResponse().getHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    @Test
+    void pointsAssetReferencesAtFingerprintedNames() throws IOException {
+        RumConfigFilter fingerprinted = new RumConfigFilter("monitor", "pool", "us-east-1",
+            new ByteArrayResource("<script src=\"/scripts/app.js\"></script>".getBytes(StandardCharsets.UTF_8)),
+            new AssetManifest(Collections.singletonMap("/scripts/app.js", "/scripts/app-0123abcd.js")));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+        fingerprinted.filter(exchange, ex -> Mono.empty()).block();
+
+        assertEquals("<script src=\"/scripts/app-0123abcd.js\"></script>", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void servesGzipWhenAccepted() throws IOException {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/index.html").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br;q=0"));
+
+        filter.filter(exchange, ex -> Mono.empty()).block();
+
+        assertEquals("gzip", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] body = DataBufferUtils.join(exchange.getResponse().getBody())
+            .map(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                return bytes;
+            })
+            .block();
+        String html = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8);
+        assertTrue(html.contains("cwr('monitor', 'pool', 'us-east-1')"), html);
+    }
+
+    @Test
+    void prefersBrotliWhenAvailable() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"));
+
+        filter.filter(exchange, ex -> Mono.empty()).block();
+
+        String expected = Brotli4jLoader.isAvailable() ? "br" : "gzip";
+        assertEquals(expected, exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void answersNotModifiedForCurrentEtag() {
+        MockServerWebExchange first = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/").header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        filter.filter(first, ex -> Mono.empty()).block();
+        String etag = first.getResponse().getHeaders().getETag();
+        assertNotNull(etag);
+
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .header(HttpHeaders.IF_NONE_MATCH, etag));
+        filter.filter(second, ex -> Mono.empty()).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode());
+        assertEquals("", second.getResponse().getBodyAsString().defaultIfEmpty("").block());
+    }
+
+    @Test
+    void passesOtherPathsThrough() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/gateway/owners/1"));
+        AtomicBoolean chained = new AtomicBoolean();
+
+        filter.filter(exchange, ex -> Mono.fromRunnable(() -> chained.set(true))).block();
+
+        assertTrue(chained.get());
+        assertFalse(exchange.getResponse().getHeaders().containsKey(HttpHeaders.VARY));
+    }
+}
@@ -0,0 +1,61 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.samples.petclinic.api.application.ServerTiming;
+import org.springframework.samples.petclinic.api.system.ServerTimingProperties;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerTimingFilterTest {
+
+    private final ServerTimingProperties properties = new ServerTimingProperties();
+
+    private final ServerTimingFilter filter = new ServerTimingFilter(properties);
+
+    @Test
+    void reportsDownstreamCallsOfSampledApiRequests() {
+        properties.setSampleRate(1.0);
+
+        MockServerWebExchange exchange = exchange("/api/customer/owners");
+        filter.filter(exchange, this::callCustomers).block();
+
+        String header = exchange.getResponse().getHeaders().getFirst(ServerTiming.HEADER);
+        assertTrue(header != null && header.startsWith("customers-service;desc=\"GET /owners\";dur="), header);
+    }
+
+    @Test
+    void leavesUnsampledRequestsAlone() {
+        properties.setSampleRate(0.0);
+
+        MockServerWebExchange exchange = exchange("/api/customer/owners");
+        filter.filter(exchange, this::callCustomers).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(ServerTiming.HEADER));
+    }
+
+    @Test
+    void leavesNonApiRequestsAlone() {
+        properties.setSampleRate(1.0);
+
+        MockServerWebExchange exchange = exchange("/scripts/app.js");
+        filter.filter(exchange, this::callCustomers).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(ServerTiming.HEADER));
+    }
+
+    private Mono<Void> callCustomers(ServerWebExchange exchange) {
+        return ServerTiming.time("customers-service", "GET /owners", Mono.just("owners"))
+            .then(exchange.getResponse().setComplete());
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
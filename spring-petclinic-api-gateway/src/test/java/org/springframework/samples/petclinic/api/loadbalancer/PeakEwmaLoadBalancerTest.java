@@ -0,0 +1,139 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PeakEwmaLoadBalancerTest {
+
+    private static final int REQUESTS = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final InstanceLatencyTracker tracker = new InstanceLatencyTracker(Duration.ofSeconds(10), clock::get);
+
+    private final List<ServiceInstance> instances = Arrays.asList(
+        instance("fast-1", 8081), instance("fast-2", 8082), instance("slow", 8083));
+
+    private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(provider(instances), "vets-service", tracker);
+
+    @Test
+    void steersTrafficAwayFromSlowInstance() {
+        Map<String, Duration> latencies = new HashMap<>();
+        latencies.put("fast-1", Duration.ofMillis(5));
+        latencies.put("fast-2", Duration.ofMillis(5));
+        latencies.put("slow", Duration.ofMillis(200));
+        Map<String, Integer> picks = new HashMap<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            picks.merge(chosen.getInstanceId(), 1, Integer::sum);
+            InstanceLatencyTracker.InstanceStats stats = tracker.statsFor(uri(chosen));
+            long start = stats.start();
+            clock.addAndGet(latencies.get(chosen.getInstanceId()).toNanos());
+            stats.finish(start, true);
+        }
+
+        int slow = picks.getOrDefault("slow", 0);
+        assertTrue(slow < REQUESTS / 20, "slow instance got " + slow + " of " + REQUESTS + " requests");
+        assertTrue(picks.get("fast-1") > REQUESTS / 4, "fast-1 got " + picks.get("fast-1"));
+        assertTrue(picks.get("fast-2") > REQUESTS / 4, "fast-2 got " + picks.get("fast-2"));
+    }
+
+    @Test
+    void prefersInstanceWithFewerOutstandingRequests() {
+        for (ServiceInstance instance : instances) {
+            InstanceLatencyTracker.InstanceStats stats = tracker.statsFor(uri(instance));
+            long start = stats.start();
+            clock.addAndGet(Duration.ofMillis(10).toNanos());
+            stats.finish(start, true);
+        }
+        // fast-1 is stuck on a backlog of requests that have not completed yet
+        InstanceLatencyTracker.InstanceStats backlogged = tracker.statsFor(uri(instances.get(0)));
+        for (int i = 0; i < 10; i++) {
+            backlogged.start();
+        }
+
+        for (int i = 0; i < 100; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+            assertNotEquals("fast-1", chosen.getInstanceId());
+        }
+    }
+
+    @Test
+    void avoidsInstanceNamedInRequestHint() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(LoadBalancerHints.AVOID_INSTANCE, new AtomicReference<>("localhost:8082"));
+        DefaultRequest<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext(new RequestData(
+            HttpMethod.GET, URI.create("http://vets-service/vets"), new HttpHeaders(), new LinkedMultiValueMap<>(), attributes)));
+
+        for (int i = 0; i < 100; i++) {
+            ServiceInstance chosen = loadBalancer.choose(request).block().getServer();
+            assertNotEquals("fast-2", chosen.getInstanceId());
+        }
+    }
+
+    @Test
+    void emptyWhenNoInstancesAreAvailable() {
+        PeakEwmaLoadBalancer empty = new PeakEwmaLoadBalancer(provider(Collections.emptyList()), "vets-service", tracker);
+
+        Response<ServiceInstance> response = empty.choose(new DefaultRequest<>()).block();
+
+        assertFalse(response.hasServer());
+    }
+
+    private static ServiceInstance instance(String id, int port) {
+        return new DefaultServiceInstance(id, "vets-service", "localhost", port, false);
+    }
+
+    private static URI uri(ServiceInstance instance) {
+        return URI.create("http://" + instance.getHost() + ":" + instance.getPort() + "/vets");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<ServiceInstanceListSupplier> provider(List<ServiceInstance> instances) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "vets-service";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        };
+        ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(supplier);
+        return provider;
+    }
+}
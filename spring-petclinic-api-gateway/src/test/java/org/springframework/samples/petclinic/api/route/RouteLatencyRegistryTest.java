@@ -0,0 +1,90 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.api.route;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.api.system.RouteLatencyProperties;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteLatencyRegistryTest {
+
+    private final RouteLatencyProperties properties = new RouteLatencyProperties();
+
+    private RouteLatencyRegistry registry;
+
+    @AfterEach
+    void shutdown() {
+        registry.destroy();
+    }
+
+    @Test
+    void reportsPercentilesPerRoute() {
+        registry = new RouteLatencyRegistry(properties);
+        for (int i = 1; i <= 1000; i++) {
+            registry.record("customers-service", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        registry.record("vets-service", TimeUnit.MILLISECONDS.toNanos(5));
+
+        RouteLatencyRegistry.Percentiles customers = registry.snapshot("customers-service").getMeasured();
+
+        assertEquals(1000, customers.getCount());
+        assertEquals(500, customers.getP50(), 1);
+        assertEquals(990, customers.getP99(), 1);
+        assertEquals(1000, customers.getMax(), 1);
+        assertEquals(2, registry.snapshot().size());
+        assertNull(registry.snapshot("unknown"));
+    }
+
+    @Test
+    void correctsForCoordinatedOmission() {
+        properties.setExpectedInterval(Duration.ofMillis(10));
+        registry = new RouteLatencyRegistry(properties);
+        for (int i = 0; i < 99; i++) {
+            registry.record("visits-service", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        // One stall: the requests that would have been sent meanwhile are missing from the measurement
+        registry.record("visits-service", TimeUnit.SECONDS.toNanos(1));
+
+        RouteLatencyRegistry.RouteLatency latency = registry.snapshot("visits-service");
+
+        assertEquals(100, latency.getMeasured().getCount());
+        assertEquals(1, latency.getMeasured().getP90(), 0.01);
+        assertTrue(latency.getCorrected().getCount() > 190, "corrected count " + latency.getCorrected().getCount());
+        assertTrue(latency.getCorrected().getP90() > 500, "corrected p90 " + latency.getCorrected().getP90());
+    }
+
+    @Test
+    void reportsNoCorrectionWithoutExpectedInterval() {
+        registry = new RouteLatencyRegistry(properties);
+        for (int i = 0; i < 99; i++) {
+            registry.record("visits-service", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        registry.record("visits-service", TimeUnit.SECONDS.toNanos(1));
+
+        RouteLatencyRegistry.RouteLatency latency = registry.snapshot("visits-service");
+
+        assertEquals(100, latency.getMeasured().getCount());
+        assertNull(latency.getCorrected());
+    }
+
+    @Test
+    void dropsValuesOlderThanTheWindow() {
+        registry = new RouteLatencyRegistry(properties);
+        registry.record("customers-service", TimeUnit.MILLISECONDS.toNanos(100));
+
+        for (int i = 0; i < properties.getSlices() - 1; i++) {
+            registry.rotate();
+        }
+        assertEquals(1, registry.snapshot("customers-service").getMeasured().getCount());
+
+        registry.rotate();
+        assertEquals(0, registry.snapshot("customers-service").getMeasured().getCount());
+    }
+}
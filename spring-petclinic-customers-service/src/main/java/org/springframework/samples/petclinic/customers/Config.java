@@ -4,6 +4,7 @@ import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.samples.petclinic.customers.system.DeadlineAwareRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -12,7 +13,7 @@ public class Config {
     @Bean
     @LoadBalanced
     public RestTemplate getRestTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        SimpleClientHttpRequestFactory factory = new DeadlineAwareRequestFactory();
         factory.setConnectTimeout(2000);
         factory.setReadTimeout(2000);
         return new RestTemplate(factory);
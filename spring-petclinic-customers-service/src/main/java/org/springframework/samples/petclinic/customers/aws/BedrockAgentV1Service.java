@@ -9,6 +9,7 @@ import com.amazonaws.services.bedrockagent.AWSBedrockAgentClientBuilder;
 import com.amazonaws.services.bedrockagent.model.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import java.util.List;
 @Component
@@ -39,14 +40,14 @@ public class BedrockAgentV1Service {
     public String getKnowledgeBase() {
         try {
             ListKnowledgeBasesRequest listRequest = new ListKnowledgeBasesRequest();
-            ListKnowledgeBasesResult listResponse = bedrockAgentV1Client.listKnowledgeBases(listRequest);
+            ListKnowledgeBasesResult listResponse = bedrockAgentV1Client.listKnowledgeBases(AwsDeadline.cap(listRequest));
             List<KnowledgeBaseSummary> summaries =listResponse.getKnowledgeBaseSummaries();
             if(summaries != null && summaries.size() > 0 ) {
                 String knowledgeBaseId = summaries.get(0).getKnowledgeBaseId();
                 log.info("GetKnowledgeBaseRequest: " + knowledgeBaseId);
                 GetKnowledgeBaseRequest request = new GetKnowledgeBaseRequest()
                         .withKnowledgeBaseId(knowledgeBaseId);
-                GetKnowledgeBaseResult response = bedrockAgentV1Client.getKnowledgeBase(request);
+                GetKnowledgeBaseResult response = bedrockAgentV1Client.getKnowledgeBase(AwsDeadline.cap(request));
                 log.info("KnowledgeBase ID: " + response.getKnowledgeBase().getName());
                 return response.getKnowledgeBase().getName();
             } else {
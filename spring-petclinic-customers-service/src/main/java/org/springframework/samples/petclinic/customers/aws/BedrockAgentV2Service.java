@@ -4,6 +4,7 @@ package org.springframework.samples.petclinic.customers.aws;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.auth.credentials.WebIdentityTokenFileCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
@@ -33,13 +34,13 @@ public class BedrockAgentV2Service {
 
     public String bedrockAgentGetKnowledgeBaseV2() {
         try {
-            ListKnowledgeBasesRequest listRequest = ListKnowledgeBasesRequest.builder().build();
+            ListKnowledgeBasesRequest listRequest = AwsDeadline.cap(ListKnowledgeBasesRequest.builder()).build();
             ListKnowledgeBasesResponse listResponse = bedrockAgentV2Client.listKnowledgeBases(listRequest);
             if(listResponse.hasKnowledgeBaseSummaries() && !listResponse.knowledgeBaseSummaries().isEmpty()) {
                 String knowledgeBaseId = listResponse.knowledgeBaseSummaries().get(0).knowledgeBaseId();
                 System.out.printf("GetKnowledgeBaseRequest: " + knowledgeBaseId);
-                GetKnowledgeBaseRequest request = GetKnowledgeBaseRequest.builder()
-                        .knowledgeBaseId(knowledgeBaseId).build();
+                GetKnowledgeBaseRequest request = AwsDeadline.cap(GetKnowledgeBaseRequest.builder()
+                        .knowledgeBaseId(knowledgeBaseId)).build();
                 GetKnowledgeBaseResponse response = bedrockAgentV2Client.getKnowledgeBase(request);
                 System.out.printf("KnowledgeBase ID: " + response.knowledgeBase().knowledgeBaseId());
                 return response.knowledgeBase().knowledgeBaseId();
@@ -13,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -66,7 +67,7 @@ public class BedrockRuntimeV1Service {
             InvokeModelRequest invokeModelRequest = new InvokeModelRequest()
                     .withModelId(modelId)
                     .withBody(buffer);
-            InvokeModelResult result = bedrockRuntimeV1Client.invokeModel(invokeModelRequest);
+            InvokeModelResult result = bedrockRuntimeV1Client.invokeModel(AwsDeadline.cap(invokeModelRequest));
 
             ByteBuffer resultBodyBuffer = result.getBody().asReadOnlyBuffer();
             byte[] bytes = new byte[resultBodyBuffer.remaining()];
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.auth.credentials.WebIdentityTokenFileCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
@@ -53,11 +54,11 @@ public class BedrockRuntimeV2Service {
                     .put("top_p", 0.9)
                     .toString();
 
-            InvokeModelRequest request = InvokeModelRequest.builder()
+            InvokeModelRequest request = AwsDeadline.cap(InvokeModelRequest.builder()
                     .body(SdkBytes.fromUtf8String(payload))
                     .modelId(claudeModelId)
                     .contentType("application/json")
-                    .accept("application/json")
+                    .accept("application/json"))
                     .build();
 
             InvokeModelResponse response = bedrockRuntimeV2Client.invokeModel(request);
@@ -7,6 +7,7 @@ import com.amazonaws.services.bedrock.AmazonBedrockClientBuilder;
 import com.amazonaws.services.bedrock.model.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import org.springframework.samples.petclinic.customers.Util;
 import java.util.List;
@@ -40,7 +41,7 @@ public class BedrockV1Service {
         String responseString = "No guardrail found";
         try {
             ListGuardrailsRequest listRequest = new ListGuardrailsRequest();
-            ListGuardrailsResult listResponse = bedrockV1Client.listGuardrails(listRequest);
+            ListGuardrailsResult listResponse = bedrockV1Client.listGuardrails(AwsDeadline.cap(listRequest));
             List<GuardrailSummary> guardrails = listResponse.getGuardrails();
             if(guardrails != null && guardrails.size() > 0) {
                 String guardRailId = guardrails.get(0).getId();
@@ -48,7 +49,7 @@ public class BedrockV1Service {
 
                 GetGuardrailRequest request = new GetGuardrailRequest()
                         .withGuardrailIdentifier(guardRailId);
-                GetGuardrailResult response = bedrockV1Client.getGuardrail(request);
+                GetGuardrailResult response = bedrockV1Client.getGuardrail(AwsDeadline.cap(request));
                 responseString = response.toString();
             }
         } catch (Exception e) {
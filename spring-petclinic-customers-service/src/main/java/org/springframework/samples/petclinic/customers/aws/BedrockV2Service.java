@@ -2,6 +2,7 @@ package org.springframework.samples.petclinic.customers.aws;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.auth.credentials.WebIdentityTokenFileCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
@@ -30,14 +31,14 @@ public class BedrockV2Service {
     public String getGuardrail() {
         String id = "";
         try {
-            ListGuardrailsRequest listRequest =ListGuardrailsRequest.builder().build();
+            ListGuardrailsRequest listRequest =AwsDeadline.cap(ListGuardrailsRequest.builder()).build();
             ListGuardrailsResponse listResponse = bedrockV2Client.listGuardrails(listRequest);
             if(listResponse.hasGuardrails()) {
                 String guardRailId = listResponse.guardrails().get(0).id();
                 log.info("ListGuardrailsRequest: " + guardRailId);
 
-                GetGuardrailRequest request = GetGuardrailRequest.builder()
-                        .guardrailIdentifier(guardRailId).build();
+                GetGuardrailRequest request = AwsDeadline.cap(GetGuardrailRequest.builder()
+                        .guardrailIdentifier(guardRailId)).build();
                 GetGuardrailResponse response = bedrockV2Client.getGuardrail(request);
                 return response.guardrailId();
             } else {
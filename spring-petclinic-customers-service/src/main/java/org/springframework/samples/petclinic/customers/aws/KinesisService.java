@@ -3,6 +3,7 @@
 package org.springframework.samples.petclinic.customers.aws;
 
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.auth.credentials.WebIdentityTokenFileCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
@@ -75,7 +76,7 @@ public class KinesisService {
         List<Shard> shards = new ArrayList<>();
         DescribeStreamResponse streamRes;
         do {
-            streamRes = kinesisClient.describeStream(describeStreamRequest);
+            streamRes = kinesisClient.describeStream(AwsDeadline.cap(describeStreamRequest.toBuilder()).build());
             shards.addAll(streamRes.streamDescription().shards());
 
             if (shards.size() > 0) {
@@ -83,10 +84,10 @@ public class KinesisService {
             }
         } while (streamRes.streamDescription().hasMoreShards());
 
-        GetShardIteratorRequest itReq = GetShardIteratorRequest.builder()
+        GetShardIteratorRequest itReq = AwsDeadline.cap(GetShardIteratorRequest.builder()
             .streamName(streamName)
             .shardIteratorType("TRIM_HORIZON")
-            .shardId(lastShardId)
+            .shardId(lastShardId))
             .build();
 
         GetShardIteratorResponse shardIteratorResult = kinesisClient.getShardIterator(itReq);
@@ -97,9 +98,9 @@ public class KinesisService {
 
         // Create new GetRecordsRequest with existing shardIterator.
         // Set maximum records to return to 1000.
-        GetRecordsRequest recordsRequest = GetRecordsRequest.builder()
+        GetRecordsRequest recordsRequest = AwsDeadline.cap(GetRecordsRequest.builder()
             .shardIterator(shardIterator)
-            .limit(1000)
+            .limit(1000))
             .build();
 
         GetRecordsResponse result = kinesisClient.getRecords(recordsRequest);
@@ -3,6 +3,7 @@
 package org.springframework.samples.petclinic.customers.aws;
 
 import org.springframework.samples.petclinic.customers.Util;
+import org.springframework.samples.petclinic.customers.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.auth.credentials.WebIdentityTokenFileCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
@@ -49,16 +50,16 @@ public class SqsService {
     }
 
     public void sendMsg() {
-        String queueUrl = sqs.getQueueUrl(GetQueueUrlRequest.builder().queueName(QUEUE_NAME).build()).queueUrl();
+        String queueUrl = sqs.getQueueUrl(AwsDeadline.cap(GetQueueUrlRequest.builder().queueName(QUEUE_NAME)).build()).queueUrl();
 
-        SendMessageRequest sendMsgRequest = SendMessageRequest.builder()
+        SendMessageRequest sendMsgRequest = AwsDeadline.cap(SendMessageRequest.builder()
             .queueUrl(queueUrl)
             .messageBody("hello world")
-            .delaySeconds(5)
+            .delaySeconds(5))
             .build();
         sqs.sendMessage(sendMsgRequest);
 
-        PurgeQueueRequest purgeReq = PurgeQueueRequest.builder().queueUrl(queueUrl).build();
+        PurgeQueueRequest purgeReq = AwsDeadline.cap(PurgeQueueRequest.builder().queueUrl(queueUrl)).build();
         try {
             sqs.purgeQueue(purgeReq);
         } catch (SqsException e) {
@@ -0,0 +1,54 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.customers.system;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Caps AWS SDK calls at what is left of the {@link RequestDeadline}, so that a call made for a
+ * request the gateway is about to give up on does not keep running, and retrying, past it. Calls
+ * made after the deadline fail straight away; calls made outside a request are left alone.
+ */
+public final class AwsDeadline {
+
+    private static final String DEADLINE_PASSED = "Request deadline passed";
+
+    private AwsDeadline() {
+    }
+
+    /**
+     * Sets the API call timeout of an SDK v2 request to the remaining budget.
+     */
+    public static <B extends AwsRequest.Builder> B cap(B request) {
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (!remaining.isPresent()) {
+            return request;
+        }
+        if (remaining.getAsLong() <= 0) {
+            throw ApiCallTimeoutException.builder().message(DEADLINE_PASSED).build();
+        }
+        request.overrideConfiguration(o -> o.apiCallTimeout(Duration.ofMillis(remaining.getAsLong())));
+        return request;
+    }
+
+    /**
+     * Sets the client execution timeout of an SDK v1 request to the remaining budget.
+     */
+    public static <R extends AmazonWebServiceRequest> R cap(R request) {
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (!remaining.isPresent()) {
+            return request;
+        }
+        if (remaining.getAsLong() <= 0) {
+            throw new ClientExecutionTimeoutException(DEADLINE_PASSED);
+        }
+        request.setSdkClientExecutionTimeout((int) Math.min(Integer.MAX_VALUE, remaining.getAsLong()));
+        return request;
+    }
+}
@@ -0,0 +1,37 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.customers.system;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.util.OptionalLong;
+
+/**
+ * Request factory for outgoing {@code RestTemplate} calls that shortens the connect and read
+ * timeouts to what is left of the {@link RequestDeadline}, and passes the remaining budget on.
+ */
+public class DeadlineAwareRequestFactory extends SimpleClientHttpRequestFactory {
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (!remaining.isPresent()) {
+            return;
+        }
+        if (remaining.getAsLong() <= 0) {
+            throw new SocketTimeoutException("Request deadline passed");
+        }
+        int budget = (int) Math.min(Integer.MAX_VALUE, remaining.getAsLong());
+        if (connection.getConnectTimeout() == 0 || connection.getConnectTimeout() > budget) {
+            connection.setConnectTimeout(budget);
+        }
+        if (connection.getReadTimeout() == 0 || connection.getReadTimeout() > budget) {
+            connection.setReadTimeout(budget);
+        }
+        connection.setRequestProperty(RequestDeadline.HEADER, Long.toString(remaining.getAsLong()));
+    }
+}
@@ -90,10 +90,13 @@ class OwnerResource {
     }
 
     /**
-     * Read List of Owners
+     * Read List of Owners, or only the given ones
      */
     @GetMapping
-    public List<Owner> findAll() {
+    public List<Owner> findAll(@RequestParam(value = "ids", required = false) List<Integer> ownerIds) {
+        if (ownerIds != null) {
+            return ownerRepository.findAllById(ownerIds);
+        }
         return ownerRepository.findAll();
     }
 
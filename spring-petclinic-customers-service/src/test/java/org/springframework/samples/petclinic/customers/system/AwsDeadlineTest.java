@@ -0,0 +1,61 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.customers.system;
+
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import com.amazonaws.services.bedrock.model.ListGuardrailsRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AwsDeadlineTest {
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void capsV2CallsAtRemainingBudget() {
+        RequestDeadline.start(1500);
+
+        GetQueueUrlRequest request = AwsDeadline.cap(GetQueueUrlRequest.builder().queueName("apm_test")).build();
+
+        Duration timeout = request.overrideConfiguration().flatMap(o -> o.apiCallTimeout()).get();
+        assertTrue(!timeout.isNegative() && !timeout.isZero() && timeout.toMillis() <= 1500);
+    }
+
+    @Test
+    void capsV1CallsAtRemainingBudget() {
+        RequestDeadline.start(1500);
+
+        ListGuardrailsRequest request = AwsDeadline.cap(new ListGuardrailsRequest());
+
+        assertTrue(request.getSdkClientExecutionTimeout() > 0 && request.getSdkClientExecutionTimeout() <= 1500);
+    }
+
+    @Test
+    void leavesCallsAloneWithoutDeadline() {
+        GetQueueUrlRequest v2 = AwsDeadline.cap(GetQueueUrlRequest.builder().queueName("apm_test")).build();
+        ListGuardrailsRequest v1 = AwsDeadline.cap(new ListGuardrailsRequest());
+
+        assertFalse(v2.overrideConfiguration().isPresent());
+        assertNull(v1.getSdkClientExecutionTimeout());
+    }
+
+    @Test
+    void failsCallsMadeAfterTheDeadline() {
+        RequestDeadline.start(-1);
+
+        assertThrows(ApiCallTimeoutException.class, () -> AwsDeadline.cap(GetQueueUrlRequest.builder()));
+        assertThrows(ClientExecutionTimeoutException.class, () -> AwsDeadline.cap(new ListGuardrailsRequest()));
+    }
+}
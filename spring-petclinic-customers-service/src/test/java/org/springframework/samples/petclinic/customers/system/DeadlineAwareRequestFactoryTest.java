@@ -0,0 +1,62 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.customers.system;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineAwareRequestFactoryTest {
+
+    private final DeadlineAwareRequestFactory requestFactory = new DeadlineAwareRequestFactory();
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void shortensTimeoutsAndForwardsRemainingBudget() throws IOException {
+        requestFactory.setConnectTimeout(10_000);
+        RequestDeadline.start(1500);
+        HttpURLConnection connection = openConnection();
+
+        requestFactory.prepareConnection(connection, "GET");
+
+        assertTrue(connection.getConnectTimeout() > 0 && connection.getConnectTimeout() <= 1500);
+        assertTrue(connection.getReadTimeout() > 0 && connection.getReadTimeout() <= 1500);
+        assertTrue(Long.parseLong(connection.getRequestProperty(RequestDeadline.HEADER)) <= 1500);
+    }
+
+    @Test
+    void leavesConnectionAloneWithoutDeadline() throws IOException {
+        requestFactory.setConnectTimeout(10_000);
+        HttpURLConnection connection = openConnection();
+
+        requestFactory.prepareConnection(connection, "GET");
+
+        assertEquals(10_000, connection.getConnectTimeout());
+        assertNull(connection.getRequestProperty(RequestDeadline.HEADER));
+    }
+
+    @Test
+    void failsCallsMadeAfterTheDeadline() throws IOException {
+        RequestDeadline.start(-1);
+        HttpURLConnection connection = openConnection();
+
+        assertThrows(SocketTimeoutException.class, () -> requestFactory.prepareConnection(connection, "GET"));
+    }
+
+    private static HttpURLConnection openConnection() throws IOException {
+        return (HttpURLConnection) new URL("http://vets-service/vets").openConnection();
+    }
+}
@@ -0,0 +1,74 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.customers.web;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.customers.model.Owner;
+import org.springframework.samples.petclinic.customers.model.OwnerRepository;
+import org.springframework.samples.petclinic.customers.model.PetRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(OwnerResource.class)
+@ActiveProfiles("test")
+class OwnerResourceTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    OwnerRepository ownerRepository;
+
+    @MockBean
+    PetRepository petRepository;
+
+    @Test
+    void shouldGetOnlyTheRequestedOwners() throws Exception {
+        // Owner 99 does not exist, so the repository leaves it out
+        given(ownerRepository.findAllById(Arrays.asList(1, 2, 99)))
+            .willReturn(Arrays.asList(owner("George"), owner("Betty")));
+
+        mvc.perform(get("/owners").param("ids", "1,2,99").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].firstName").value("George"))
+            .andExpect(jsonPath("$[1].firstName").value("Betty"));
+        verify(ownerRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldGetAllOwnersWithoutIds() throws Exception {
+        given(ownerRepository.findAll()).willReturn(Collections.singletonList(owner("George")));
+
+        mvc.perform(get("/owners").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].firstName").value("George"));
+        verify(ownerRepository, never()).findAllById(anyIterable());
+    }
+
+    private static Owner owner(String firstName) {
+        Owner owner = new Owner();
+        owner.setFirstName(firstName);
+        owner.setLastName("Franklin");
+        return owner;
+    }
+}
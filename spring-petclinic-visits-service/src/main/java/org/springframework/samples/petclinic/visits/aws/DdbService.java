@@ -6,6 +6,7 @@ import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.samples.petclinic.visits.Util;
+import org.springframework.samples.petclinic.visits.system.AwsDeadline;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
@@ -29,6 +30,8 @@ import java.time.Instant;
 @Component
 public class DdbService {
 
+    final DynamoDbClient dynamoDbClient;
+
     DynamoDbTable<MyItem> table;
 
     public DdbService() {
@@ -39,8 +42,6 @@ public class DdbService {
             .retryPolicy(dynamoDbRetryPolicy).build();
 
 
-        DynamoDbClient dynamoDbClient = null;
-
         // AWS web identity is set for EKS clusters, if these are not set then use default credentials
         if (System.getenv("REGION_FROM_ECS") != null) {
             String regionName = System.getenv("REGION_FROM_ECS");
@@ -105,7 +106,12 @@ public class DdbService {
                 String timestamp = Instant.now().toString();
                 // Save the item
                 MyItem item = new MyItem.Builder(timestamp).withSomeData("This is some data").build();
-                table.putItem(item);
+                // The enhanced client in this SDK version takes no per-request override configuration,
+                // so the item is written through the low-level client, capped at the request deadline.
+                dynamoDbClient.putItem(AwsDeadline.cap(PutItemRequest.builder()
+                    .tableName(table.tableName())
+                    .item(table.tableSchema().itemToMap(item, true)))
+                    .build());
             }
         } catch (Exception e){
             handleCommonErrors(e);
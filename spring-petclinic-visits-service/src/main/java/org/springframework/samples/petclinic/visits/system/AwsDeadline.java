@@ -0,0 +1,35 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.visits.system;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Caps AWS SDK calls at what is left of the {@link RequestDeadline}, so that a call made for a
+ * request the gateway is about to give up on does not keep running, and retrying, past it. Calls
+ * made after the deadline fail straight away; calls made outside a request are left alone.
+ */
+public final class AwsDeadline {
+
+    private AwsDeadline() {
+    }
+
+    /**
+     * Sets the API call timeout of the request to the remaining budget.
+     */
+    public static <B extends AwsRequest.Builder> B cap(B request) {
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (!remaining.isPresent()) {
+            return request;
+        }
+        if (remaining.getAsLong() <= 0) {
+            throw ApiCallTimeoutException.builder().message("Request deadline passed").build();
+        }
+        request.overrideConfiguration(o -> o.apiCallTimeout(Duration.ofMillis(remaining.getAsLong())));
+        return request;
+    }
+}
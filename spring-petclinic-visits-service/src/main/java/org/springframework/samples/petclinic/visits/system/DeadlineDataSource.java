@@ -0,0 +1,74 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.visits.system;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.OptionalLong;
+
+/**
+ * Caps the query timeout of every statement created while a {@link RequestDeadline} is set to the
+ * time left, so a query cannot outlive the caller. Once the deadline has passed, creating a
+ * statement fails instead.
+ */
+class DeadlineDataSource extends DelegatingDataSource {
+
+    DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withDeadline(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withDeadline(super.getConnection(username, password));
+    }
+
+    private static Connection withDeadline(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(DeadlineDataSource.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                if ("equals".equals(method.getName())) {
+                    return proxy == args[0];
+                }
+                if ("hashCode".equals(method.getName())) {
+                    return System.identityHashCode(proxy);
+                }
+                Object result;
+                try {
+                    result = method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (result instanceof Statement) {
+                    applyDeadline((Statement) result);
+                }
+                return result;
+            });
+    }
+
+    private static void applyDeadline(Statement statement) throws SQLException {
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        if (!remaining.isPresent()) {
+            return;
+        }
+        if (remaining.getAsLong() <= 0) {
+            statement.close();
+            throw new SQLTimeoutException("Request deadline passed");
+        }
+        // JDBC timeouts are whole seconds; round up so a short budget doesn't disable the timeout
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remaining.getAsLong() + 999) / 1000);
+        if (statement.getQueryTimeout() == 0 || statement.getQueryTimeout() > seconds) {
+            statement.setQueryTimeout(seconds);
+        }
+    }
+}
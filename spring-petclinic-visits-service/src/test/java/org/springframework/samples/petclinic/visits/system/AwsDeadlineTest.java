@@ -0,0 +1,46 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.visits.system;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AwsDeadlineTest {
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void capsCallsAtRemainingBudget() {
+        RequestDeadline.start(1500);
+
+        PutItemRequest request = AwsDeadline.cap(PutItemRequest.builder().tableName("apm_test")).build();
+
+        Duration timeout = request.overrideConfiguration().flatMap(o -> o.apiCallTimeout()).get();
+        assertTrue(!timeout.isNegative() && !timeout.isZero() && timeout.toMillis() <= 1500);
+    }
+
+    @Test
+    void leavesCallsAloneWithoutDeadline() {
+        PutItemRequest request = AwsDeadline.cap(PutItemRequest.builder().tableName("apm_test")).build();
+
+        assertFalse(request.overrideConfiguration().isPresent());
+    }
+
+    @Test
+    void failsCallsMadeAfterTheDeadline() {
+        RequestDeadline.start(-1);
+
+        assertThrows(ApiCallTimeoutException.class, () -> AwsDeadline.cap(PutItemRequest.builder()));
+    }
+}
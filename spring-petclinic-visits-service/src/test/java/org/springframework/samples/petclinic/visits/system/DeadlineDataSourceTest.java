@@ -0,0 +1,77 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.visits.system;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeadlineDataSourceTest {
+
+    private final Connection target = Mockito.mock(Connection.class);
+
+    private final Statement statement = Mockito.mock(Statement.class);
+
+    private final PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+
+    private DeadlineDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource targetDataSource = Mockito.mock(DataSource.class);
+        Mockito.when(targetDataSource.getConnection()).thenReturn(target);
+        Mockito.when(target.createStatement()).thenReturn(statement);
+        Mockito.when(target.prepareStatement("SELECT 1")).thenReturn(preparedStatement);
+        dataSource = new DeadlineDataSource(targetDataSource);
+    }
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void capsQueryTimeoutToRemainingBudget() throws SQLException {
+        RequestDeadline.start(1500);
+
+        dataSource.getConnection().prepareStatement("SELECT 1");
+
+        Mockito.verify(preparedStatement).setQueryTimeout(2);
+    }
+
+    @Test
+    void keepsShorterQueryTimeout() throws SQLException {
+        Mockito.when(statement.getQueryTimeout()).thenReturn(1);
+        RequestDeadline.start(30_000);
+
+        dataSource.getConnection().createStatement();
+
+        Mockito.verify(statement, Mockito.never()).setQueryTimeout(Mockito.anyInt());
+    }
+
+    @Test
+    void leavesQueryTimeoutAloneWithoutDeadline() throws SQLException {
+        dataSource.getConnection().createStatement();
+
+        Mockito.verify(statement, Mockito.never()).setQueryTimeout(Mockito.anyInt());
+    }
+
+    @Test
+    void failsStatementsCreatedAfterTheDeadline() throws SQLException {
+        RequestDeadline.start(-1);
+        Connection connection = dataSource.getConnection();
+
+        assertThrows(SQLTimeoutException.class, connection::createStatement);
+        Mockito.verify(statement).close();
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+package org.springframework.samples.petclinic.visits.system;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineFilterTest {
+
+    private final DeadlineFilter filter = new DeadlineFilter();
+
+    private final AtomicReference<OptionalLong> seen = new AtomicReference<>();
+
+    private final MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            seen.set(RequestDeadline.remainingMillis());
+        }
+    });
+
+    @Test
+    void startsDeadlineFromBudgetHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/visits");
+        request.addHeader(RequestDeadline.HEADER, " 1500 ");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertTrue(seen.get().isPresent());
+        assertTrue(seen.get().getAsLong() > 0 && seen.get().getAsLong() <= 1500);
+        assertFalse(RequestDeadline.remainingMillis().isPresent());
+    }
+
+    @Test
+    void ignoresMalformedBudget() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/visits");
+        request.addHeader(RequestDeadline.HEADER, "soon");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertFalse(seen.get().isPresent());
+    }
+
+    @Test
+    void rejectsRequestsWhoseDeadlinePassed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/visits");
+        request.addHeader(RequestDeadline.HEADER, "0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(HttpServletResponse.SC_GATEWAY_TIMEOUT, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+}
@@ -2,6 +2,9 @@ const axios = require('axios');
 const cron = require('node-cron');
 
 const baseUrl = process.env.URL || 'http://your-sample-app-end-point';
+
+// Lets the gateway serve real users first and shed this load when it is overloaded
+axios.defaults.headers.common['X-Request-Priority'] = 'synthetic';
 const highLoadMaxRequests = parseInt(process.env.HIGH_LOAD_MAX, 10) || 1600;
 const highLoadMinRequests = parseInt(process.env.HIGH_LOAD_MIN, 10) || 800;
 const burstMaxDelay = parseInt(process.env.BURST_DELAY_MAX, 10) || 120;